@@ -24,12 +24,48 @@ import java.sql.*;
 
 public class DBConnection {
 
+    // Server-side prepares + Connector/J's per-connection statement cache: with pooled
+    // connections the hot repository queries are parsed once per session, not per call.
+    // rewriteBatchedStatements sends an executeBatch() as multi-row statements, not one round-trip per row.
+    private static final String URL = "jdbc:mysql://localhost:3306/musicstreamingdb1"
+            + "?useServerPrepStmts=true"
+            + "&cachePrepStmts=true"
+            + "&prepStmtCacheSize=250"
+            + "&prepStmtCacheSqlLimit=2048"
+            + "&rewriteBatchedStatements=true";
+    private static final String USER = "user_name";
+    private static final String PASSWORD = "your_password";
+
+    // Pool sizing / timeouts
+    private static final int POOL_MIN_SIZE = 2;
+    static final int POOL_MAX_SIZE = 10; // also sizes AsyncDataService's fallback workers
+    private static final long BORROW_TIMEOUT_MS = 5_000;
+    private static final long IDLE_TIMEOUT_MS = 5 * 60_000;
+    private static final long LEAK_THRESHOLD_MS = 30_000;
+
+    // Created on first use so merely loading the class doesn't touch MySQL
+    private static class PoolHolder {
+        static final ConnectionPool POOL = createPool();
+
+        private static ConnectionPool createPool() {
+            ConnectionPool pool = new ConnectionPool(URL, USER, PASSWORD,
+                    POOL_MIN_SIZE, POOL_MAX_SIZE,
+                    BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS, LEAK_THRESHOLD_MS);
+            Runtime.getRuntime().addShutdownHook(new Thread(pool::shutdown, "db-pool-shutdown"));
+            return pool;
+        }
+    }
+
+    /**
+     * Borrow a pooled connection. Closing it (try-with-resources) returns it to
+     * the pool rather than closing the underlying MySQL session.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(
-                "jdbc:mysql://localhost:3306/musicstreamingdb1",
-                "user_name",
-                "your_password"
-        );
+        return PoolHolder.POOL.borrow();
+    }
+
+    public static ConnectionPool getPool() {
+        return PoolHolder.POOL;
     }
 
     public static User getUserByUsername(String username) {
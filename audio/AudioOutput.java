@@ -0,0 +1,254 @@
+package audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * The output half of the engine: one SourceDataLine fed from a
+ * {@link PcmRingBuffer} by its own "audio-output" thread.
+ *
+ * The engine thread decodes ahead into the ring and never waits on the
+ * device, so a slow decode or a GC pause on that side eats into the ring
+ * instead of starving the line. The output thread only ever writes what the
+ * line can take without blocking, which lets it hold {@link #lock} for the
+ * write; flush, stop and reopen take the same lock, so no stale bytes slip
+ * into the line after a flush.
+ *
+ * An underrun is counted each time the line runs nearly dry (under 1/8 of its
+ * buffer) with the ring empty while a track is still being fed.
+ *
+ * If the line throws on the output thread (closed under it, or a format it
+ * won't take), the line is dropped, the thread goes back to waiting for the
+ * next open and the error is handed to the engine, which fails the track
+ * rather than carrying on "playing" into silence.
+ */
+class AudioOutput {
+
+    /** Largest format we expect: 48 kHz, 16-bit stereo. */
+    private static final int MAX_BYTES_PER_SECOND = 48_000 * 4;
+
+    private final Object lock = new Object();
+    private final byte[] slice = new byte[4096];
+    // told about line failures, on the output thread
+    private final Consumer<RuntimeException> onError;
+
+    private volatile PcmRingBuffer ring;
+    private volatile int bufferMillis;
+
+    // guarded by lock
+    private SourceDataLine line;
+    private boolean started;
+    // the line has been well filled since the last flush / has since run nearly dry
+    private boolean primed;
+    private boolean starved;
+
+    // a track is being fed, so a dry ring means the decoder fell behind
+    private volatile boolean feeding;
+
+    private volatile long underruns;
+
+    AudioOutput(int bufferMillis, Consumer<RuntimeException> onError) {
+        this.bufferMillis = bufferMillis;
+        this.onError = onError;
+        ring = new PcmRingBuffer(ringBytes(bufferMillis));
+        Thread output = new Thread(this::run, "audio-output");
+        output.setDaemon(true);
+        output.setPriority(Thread.MAX_PRIORITY);
+        output.start();
+    }
+
+    // ===== LINE CONTROL (engine thread) =====
+
+    /** Reuse the open line when the format matches; reopen only on a format change. */
+    void open(AudioFormat format, int lineBufferMillis) throws LineUnavailableException {
+        synchronized (lock) {
+            if (line != null && line.isOpen() && line.getFormat().matches(format)) return;
+            if (line != null) line.close();
+            line = null;
+            started = false;
+            ring.discard();
+            int bytes = (int) (format.getFrameRate() * format.getFrameSize() * lineBufferMillis / 1000);
+            SourceDataLine l = AudioSystem.getSourceDataLine(format);
+            l.open(format, bytes - bytes % format.getFrameSize());
+            line = l;
+        }
+    }
+
+    /** Format of the open line, or null. */
+    AudioFormat getFormat() {
+        synchronized (lock) {
+            return line != null && line.isOpen() ? line.getFormat() : null;
+        }
+    }
+
+    void start() {
+        synchronized (lock) {
+            if (line == null) return;
+            line.start();
+            started = true;
+            lock.notifyAll();
+        }
+    }
+
+    /** Halt output where it is; buffered audio stays queued for {@link #start()}. */
+    void stop() {
+        synchronized (lock) {
+            if (line == null) return;
+            line.stop();
+            started = false;
+        }
+    }
+
+    /** Throw away everything buffered, in the ring and in the line. */
+    void flush() {
+        synchronized (lock) {
+            ring.discard();
+            if (line != null) line.flush();
+            feeding = false;
+            primed = false;
+        }
+    }
+
+    /** Block until every byte offered so far has been played. */
+    void drain() throws InterruptedException {
+        while (!ring.isEmpty()) TimeUnit.MILLISECONDS.sleep(2);
+        SourceDataLine l;
+        synchronized (lock) {
+            l = line;
+        }
+        feeding = false;
+        if (l != null) l.drain();
+    }
+
+    // ===== FEEDING (engine thread) =====
+
+    /** Queue PCM for the line; returns how many bytes fitted in the ring. */
+    int offer(byte[] src, int off, int len) {
+        int n = ring.write(src, off, len);
+        if (n > 0) feeding = true;
+        return n;
+    }
+
+    /** Bytes the ring can take right now. */
+    int free() {
+        return ring.free();
+    }
+
+    /** True once every byte offered has been handed to the line. */
+    boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    /** The current track has no more data coming; a dry line from here on isn't an underrun. */
+    void endOfStream() {
+        feeding = false;
+    }
+
+    /** Ring depth in milliseconds at the largest expected format; applied by the next {@link #resize()}. */
+    void setBufferMillis(int millis) {
+        bufferMillis = millis;
+    }
+
+    /** Swap in a ring of the configured depth if it changed. Call only right after {@link #flush()}. */
+    void resize() {
+        int bytes = ringBytes(bufferMillis);
+        synchronized (lock) {
+            if (new PcmRingBuffer(bytes).capacity() != ring.capacity()) ring = new PcmRingBuffer(bytes);
+        }
+    }
+
+    private int ringBytes(int millis) {
+        return Math.max(MAX_BYTES_PER_SECOND / 1000 * millis, slice.length * 2);
+    }
+
+    // ===== METRICS =====
+
+    int getBufferMillis() {
+        return bufferMillis;
+    }
+
+    long getUnderrunCount() {
+        return underruns;
+    }
+
+    /** Audio queued in the ring, not counting the line's own buffer. */
+    long getBufferedMillis() {
+        AudioFormat f = getFormat();
+        if (f == null) return 0;
+        return (long) (ring.size() / f.getFrameSize() * 1000L / f.getFrameRate());
+    }
+
+    /** Audio offered but not heard yet: the ring plus what is queued in the line. */
+    long getQueuedMillis() {
+        synchronized (lock) {
+            if (line == null || !line.isOpen()) return 0;
+            AudioFormat f = line.getFormat();
+            long bytes = ring.size() + line.getBufferSize() - line.available();
+            return (long) (bytes / f.getFrameSize() * 1000L / f.getFrameRate());
+        }
+    }
+
+    // ===== OUTPUT THREAD =====
+
+    private void run() {
+        while (true) {
+            int written;
+            RuntimeException failure = null;
+            synchronized (lock) {
+                while (line == null || !started) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                try {
+                    written = writeSome();
+                } catch (RuntimeException e) {
+                    failure = e;
+                    written = 0;
+                    dropLine();
+                }
+            }
+            if (failure != null) onError.accept(failure);
+            else if (written == 0) LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /** After a failed write: close the line so the next {@link #open} starts on a fresh one. Caller holds lock. */
+    private void dropLine() {
+        try {
+            line.close();
+        } catch (RuntimeException ignored) {
+        }
+        line = null;
+        started = false;
+        ring.discard();
+        feeding = false;
+        primed = false;
+    }
+
+    /** Move what fits from the ring into the line without blocking. */
+    private int writeSome() {
+        int frame = line.getFormat().getFrameSize();
+        int room = line.available();
+        room -= room % frame;
+        int n = ring.read(slice, 0, Math.min(slice.length, room));
+        if (n > 0) line.write(slice, 0, n);
+
+        int queued = line.getBufferSize() - line.available();
+        if (queued > line.getBufferSize() / 2) {
+            primed = true;
+            starved = false;
+        } else if (primed && feeding && !starved && queued < line.getBufferSize() / 8 && ring.isEmpty()) {
+            starved = true;
+            underruns++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,59 @@
+package audio;
+
+import model.AudioInfo;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Reads duration, bitrate and sample rate from an audio file's headers
+ * without decoding any audio.
+ *
+ * MP3s are measured by walking every frame header, which is also how their
+ * {@link FrameIndex} is built, so probing a file leaves its seek index on disk
+ * and the player never has to scan it at play time. Duration is therefore
+ * exact for VBR files rather than estimated from the first frame.
+ */
+public final class AudioProbe {
+
+    private AudioProbe() {}
+
+    /** Facts about the file behind {@code songId}, or null if it isn't a format we can read headers of. */
+    public static AudioInfo probe(int songId, String path) throws IOException {
+        File file = new File(path);
+        if (!file.isFile()) throw new IOException("Audio file not found: " + path);
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".mp3")) return probeMp3(songId, file);
+        if (name.endsWith(".wav") || name.endsWith(".aif") || name.endsWith(".aiff") || name.endsWith(".au")) {
+            return probePcm(songId, file);
+        }
+        return null;
+    }
+
+    private static AudioInfo probeMp3(int songId, File file) throws IOException {
+        FrameIndex index = FrameIndex.forFile(file);
+        if (index == null) throw new IOException("No MP3 frames in " + file);
+        return new AudioInfo(songId, index.getDurationMillis(), index.getAverageKbps(), index.isVariableBitrate(),
+                index.getSampleRate(), index.getChannels(), index.getFileLength(), index.getLastModified());
+    }
+
+    private static AudioInfo probePcm(int songId, File file) throws IOException {
+        long length = file.length();
+        long modified = file.lastModified();
+        try {
+            AudioFileFormat aff = AudioSystem.getAudioFileFormat(file);
+            AudioFormat f = aff.getFormat();
+            long frames = aff.getFrameLength();
+            long millis = frames > 0 ? (long) (frames * 1000L / f.getFrameRate()) : -1;
+            int kbps = (int) (f.getFrameRate() * f.getFrameSize() * 8 / 1000);
+            return new AudioInfo(songId, millis, kbps, false, (int) f.getSampleRate(), f.getChannels(), length, modified);
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException("Unsupported audio file " + file, e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A track file opened once and shared by everything reading it: the
+ * decoder, its seeks and the {@link FrameIndex} scanner. Opening the same
+ * file again while it's open just takes another reference, so a seek or a
+ * re-decode is a new stream over the same channel rather than a new open.
+ *
+ * Reads are positional reads of just the region asked for, so a pre-roll
+ * that decodes the first few seconds reads the first few hundred KB, not
+ * the whole file. The file isn't memory-mapped: Java can't unmap, and
+ * Windows keeps a mapped file locked until the mapping is garbage
+ * collected, so the admin couldn't replace or re-import a played track. The
+ * channel itself doesn't lock the file and is closed with the last reference.
+ *
+ * Every stream keeps its own position and buffer, so readers on different
+ * threads don't interfere.
+ */
+final class AudioSource implements AutoCloseable {
+
+    /** Bytes fetched per read by streams and by {@link #get}. */
+    static final int READ_BYTES = 64 * 1024;
+
+    private static final Map<String, AudioSource> OPEN = new HashMap<>();
+
+    private final File file;
+    private final String key;
+    private final long length;
+    private final long lastModified;
+    private volatile FileChannel channel;
+    private int refs; // guarded by OPEN
+
+    // get()'s window, for the scanner's byte-at-a-time walk; guarded by this
+    private final ByteBuffer window = ByteBuffer.allocate(READ_BYTES);
+    private long windowStart = -1;
+
+    private AudioSource(File file, String key, long length, long lastModified, FileChannel channel) {
+        this.file = file;
+        this.key = key;
+        this.length = length;
+        this.lastModified = lastModified;
+        this.channel = channel;
+    }
+
+    /** A reference to the open file, opening it if nobody has yet. Close it when done. */
+    static AudioSource open(File file) throws IOException {
+        String key = file.getAbsolutePath();
+        synchronized (OPEN) {
+            AudioSource live = OPEN.get(key);
+            if (live != null && live.length == file.length() && live.lastModified == file.lastModified()) {
+                live.refs++;
+                return live;
+            }
+        }
+
+        long modified = file.lastModified();
+        FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        AudioSource opened;
+        try {
+            opened = new AudioSource(file, key, ch.size(), modified, ch);
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+        synchronized (OPEN) {
+            // another thread may have opened it meanwhile; either works, keep the newest
+            opened.refs = 1;
+            OPEN.put(key, opened);
+        }
+        return opened;
+    }
+
+    long length() {
+        return length;
+    }
+
+    /** Unsigned byte at an absolute position, or -1 past the end. */
+    synchronized int get(long pos) throws IOException {
+        if (pos >= length) return -1;
+        if (windowStart < 0 || pos < windowStart || pos >= windowStart + window.limit()) {
+            window.clear();
+            fill(window, pos);
+            window.flip();
+            windowStart = pos;
+            if (!window.hasRemaining()) return -1; // shrank since it was opened
+        }
+        return window.get((int) (pos - windowStart)) & 0xFF;
+    }
+
+    /** A stream over the file starting at {@code offset}; independent of other streams. */
+    InputStream stream(long offset) {
+        return new ChannelStream(Math.min(offset, length));
+    }
+
+    @Override
+    public void close() {
+        FileChannel ch = null;
+        synchronized (OPEN) {
+            if (--refs == 0) {
+                if (OPEN.get(key) == this) OPEN.remove(key);
+                ch = channel;
+            }
+        }
+        if (ch != null) {
+            try {
+                ch.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /** Read into {@code dst} from {@code pos} until it's full or the file ends. */
+    private void fill(ByteBuffer dst, long pos) throws IOException {
+        while (dst.hasRemaining() && pos < length) {
+            int n = readAt(dst, pos);
+            if (n < 0) break;
+            pos += n;
+        }
+    }
+
+    private int readAt(ByteBuffer dst, long pos) throws IOException {
+        FileChannel ch = channel;
+        try {
+            return ch.read(dst, pos);
+        } catch (ClosedByInterruptException e) {
+            // the interrupt closed the shared channel; the other readers still need one
+            reopen(ch);
+            throw e;
+        }
+    }
+
+    private void reopen(FileChannel broken) throws IOException {
+        synchronized (OPEN) {
+            if (channel == broken && refs > 0) channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+    }
+
+    /** Buffered InputStream at its own position in the file; skips and mark/reset are position changes. */
+    private final class ChannelStream extends InputStream {
+        private final ByteBuffer buf = ByteBuffer.allocate(READ_BYTES);
+        private long pos; // file position of the next byte not yet in buf
+        private long mark;
+
+        ChannelStream(long pos) {
+            this.pos = pos;
+            this.mark = pos;
+            buf.limit(0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!buf.hasRemaining() && !refill()) return -1;
+            return buf.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (!buf.hasRemaining() && !refill()) return -1;
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long target = Math.min(length, Math.max(position(), position() + n));
+            long skipped = target - position();
+            seek(target);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, length - position());
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            mark = position();
+        }
+
+        @Override
+        public synchronized void reset() {
+            seek(mark);
+        }
+
+        private long position() {
+            return pos - buf.remaining();
+        }
+
+        private void seek(long target) {
+            long bufStart = pos - buf.limit();
+            if (target >= bufStart && target <= pos) {
+                buf.position((int) (target - bufStart));
+            } else {
+                pos = target;
+                buf.limit(0);
+            }
+        }
+
+        private boolean refill() throws IOException {
+            if (pos >= length) return false;
+            buf.clear();
+            fill(buf, pos);
+            buf.flip();
+            pos += buf.limit();
+            return buf.hasRemaining();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package audio;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Byte offset of every MPEG audio frame in one MP3 file.
+ *
+ * With it, seeking to t ms is an array lookup plus one file position change,
+ * instead of walking every frame from the start the way AdvancedPlayer's
+ * play(startFrame) did. It also gives exact durations for VBR files, and the
+ * sample rate, channel count and bitrate range seen in the headers.
+ *
+ * An index is built once per file by scanning frame headers (no decoding) and
+ * saved under ~/.musicstreaming/frame-index next to the thumbnail store; it is
+ * rebuilt automatically if the file's length or mtime changes.
+ */
+final class FrameIndex {
+
+    private static final int MAGIC = 0x4d465832; // "MFX2"
+    private static final int MAX_CACHED = 16;
+
+    private static final File STORE_DIR = new File(System.getProperty("user.home"),
+            ".musicstreaming" + File.separator + "frame-index");
+
+    private static final Map<String, FrameIndex> CACHE = new LinkedHashMap<String, FrameIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FrameIndex> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    private static final ExecutorService INDEXER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "frame-indexer");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private final long fileLength;
+    private final long lastModified;
+    private final float msPerFrame;
+    private final int sampleRate;
+    private final int channels;
+    private final int minKbps;
+    private final int maxKbps;
+    // from the first frame to the end of the last one
+    private final long audioBytes;
+    private final long[] offsets;
+
+    private FrameIndex(long fileLength, long lastModified, float msPerFrame, int sampleRate, int channels,
+                       int minKbps, int maxKbps, long audioBytes, long[] offsets) {
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.msPerFrame = msPerFrame;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.minKbps = minKbps;
+        this.maxKbps = maxKbps;
+        this.audioBytes = audioBytes;
+        this.offsets = offsets;
+    }
+
+    // ===== LOOKUP =====
+
+    int getFrameCount() {
+        return offsets.length;
+    }
+
+    float getMillisPerFrame() {
+        return msPerFrame;
+    }
+
+    long getDurationMillis() {
+        return (long) (offsets.length * msPerFrame);
+    }
+
+    int getSampleRate() {
+        return sampleRate;
+    }
+
+    int getChannels() {
+        return channels;
+    }
+
+    /** Mean bitrate over the whole stream. */
+    int getAverageKbps() {
+        long ms = getDurationMillis();
+        return ms == 0 ? 0 : (int) (audioBytes * 8 / ms);
+    }
+
+    /** Frames use more than one bitrate. */
+    boolean isVariableBitrate() {
+        return minKbps != maxKbps;
+    }
+
+    long getFileLength() {
+        return fileLength;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    /** Frame containing {@code millis}, clamped to the track. */
+    int frameAt(long millis) {
+        int frame = (int) (millis / msPerFrame);
+        return Math.max(0, Math.min(frame, offsets.length - 1));
+    }
+
+    long offsetOf(int frame) {
+        return offsets[frame];
+    }
+
+    long millisOf(int frame) {
+        return (long) (frame * msPerFrame);
+    }
+
+    // ===== ACCESS =====
+
+    /** Index for the file, loading or building it as needed. Null if it isn't a usable MP3. */
+    static FrameIndex forFile(File file) {
+        FrameIndex index = ifAvailable(file);
+        if (index != null) return index;
+        try {
+            index = build(file);
+        } catch (IOException e) {
+            return null;
+        }
+        if (index == null) return null;
+        save(file, index);
+        remember(file, index);
+        return index;
+    }
+
+    /** Index from memory or disk only; never scans the file. */
+    static FrameIndex ifAvailable(File file) {
+        String key = file.getAbsolutePath();
+        synchronized (CACHE) {
+            FrameIndex cached = CACHE.get(key);
+            if (cached != null && cached.matches(file)) return cached;
+        }
+        FrameIndex loaded = load(file);
+        if (loaded != null) remember(file, loaded);
+        return loaded;
+    }
+
+    /** Make sure an index exists, building it on the low-priority indexer thread if not. */
+    static void prefetch(File file) {
+        synchronized (CACHE) {
+            FrameIndex cached = CACHE.get(file.getAbsolutePath());
+            if (cached != null && cached.matches(file)) return;
+        }
+        INDEXER.execute(() -> forFile(file));
+    }
+
+    private boolean matches(File file) {
+        return file.length() == fileLength && file.lastModified() == lastModified;
+    }
+
+    private static void remember(File file, FrameIndex index) {
+        synchronized (CACHE) {
+            CACHE.put(file.getAbsolutePath(), index);
+        }
+    }
+
+    // ===== SCAN =====
+
+    private static final int[][] BITRATES = {
+            // MPEG-1 layer I, II, III
+            {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+            {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320},
+            // MPEG-2/2.5 layer I, II & III
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160},
+    };
+    private static final int[] SAMPLE_RATES = {44100, 48000, 32000};
+
+    /**
+     * Walk frame headers from the first audio frame to the end of the file,
+     * through the same {@link AudioSource} the decoder reads when the track is playing.
+     */
+    static FrameIndex build(File file) throws IOException {
+        long modified = file.lastModified();
+        try (AudioSource in = AudioSource.open(file)) {
+            return scan(in, in.length(), modified);
+        }
+    }
+
+    private static FrameIndex scan(AudioSource in, long length, long modified) throws IOException {
+        long pos = id3v2Size(in);
+        long[] offsets = new long[1024];
+        int count = 0;
+        int lockedRate = 0;
+        int lockedLayer = 0;
+        float msPerFrame = 0;
+        int channels = 0;
+        int minKbps = Integer.MAX_VALUE;
+        int maxKbps = 0;
+        long end = pos;
+
+        while (pos + 4 <= length) {
+            int b0 = in.get(pos);
+            int b1 = in.get(pos + 1);
+            int b2 = in.get(pos + 2);
+            int version = (b1 >> 3) & 3;          // 3 = MPEG-1, 2 = MPEG-2, 0 = MPEG-2.5
+            int layer = 4 - ((b1 >> 1) & 3);      // 1..3, 4 = reserved
+            int bitrateIndex = b2 >> 4;
+            int rateIndex = (b2 >> 2) & 3;
+
+            boolean valid = b0 == 0xFF && (b1 & 0xE0) == 0xE0
+                    && version != 1 && layer != 4
+                    && bitrateIndex != 0 && bitrateIndex != 15 && rateIndex != 3;
+            int rate = valid ? SAMPLE_RATES[rateIndex] >> (version == 3 ? 0 : version == 2 ? 1 : 2) : 0;
+            // once locked on, ignore stray sync patterns inside audio data
+            if (valid && lockedRate != 0 && (rate != lockedRate || layer != lockedLayer)) valid = false;
+            if (!valid) {
+                pos++;
+                continue;
+            }
+
+            boolean mpeg1 = version == 3;
+            int kbps = BITRATES[mpeg1 ? layer - 1 : (layer == 1 ? 3 : 4)][bitrateIndex];
+            int padding = (b2 >> 1) & 1;
+            int samples = layer == 1 ? 384 : (layer == 3 && !mpeg1) ? 576 : 1152;
+            int frameLength = layer == 1
+                    ? (12 * kbps * 1000 / rate + padding) * 4
+                    : samples / 8 * kbps * 1000 / rate + padding;
+
+            if (pos + frameLength > length) break; // truncated final frame
+            if (lockedRate == 0) {
+                lockedRate = rate;
+                lockedLayer = layer;
+                msPerFrame = samples * 1000f / rate;
+                channels = (in.get(pos + 3) >> 6) == 3 ? 1 : 2; // channel mode 3 = mono
+            }
+            if (count == offsets.length) offsets = Arrays.copyOf(offsets, count * 2);
+            offsets[count++] = pos;
+            minKbps = Math.min(minKbps, kbps);
+            maxKbps = Math.max(maxKbps, kbps);
+            pos += frameLength;
+            end = pos;
+        }
+        if (count == 0) return null;
+        return new FrameIndex(length, modified, msPerFrame, lockedRate, channels, minKbps, maxKbps,
+                end - offsets[0], Arrays.copyOf(offsets, count));
+    }
+
+    /** Bytes taken by a leading ID3v2 tag, 0 if there is none. */
+    private static long id3v2Size(AudioSource in) throws IOException {
+        if (in.get(0) != 'I' || in.get(1) != 'D' || in.get(2) != '3') return 0;
+        int size = (in.get(6) & 0x7F) << 21 | (in.get(7) & 0x7F) << 14 | (in.get(8) & 0x7F) << 7 | (in.get(9) & 0x7F);
+        boolean footer = (in.get(5) & 0x10) != 0;
+        return 10L + size + (footer ? 10 : 0);
+    }
+
+    // ===== PERSISTENCE =====
+
+    private static File storeFile(File file) {
+        return new File(STORE_DIR, sha1(file.getAbsolutePath()) + ".idx");
+    }
+
+    private static FrameIndex load(File file) {
+        File f = storeFile(file);
+        if (!f.isFile()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+            if (in.readInt() != MAGIC) return null;
+            long length = in.readLong();
+            long modified = in.readLong();
+            if (length != file.length() || modified != file.lastModified()) return null;
+            float msPerFrame = in.readFloat();
+            int sampleRate = in.readInt();
+            int channels = in.readByte();
+            int minKbps = in.readShort();
+            int maxKbps = in.readShort();
+            long audioBytes = in.readLong();
+            int count = in.readInt();
+            long[] offsets = new long[count];
+            long prev = 0;
+            for (int i = 0; i < count; i++) {
+                prev += in.readInt(); // delta-encoded: frames are at most a few KB apart
+                offsets[i] = prev;
+            }
+            return new FrameIndex(length, modified, msPerFrame, sampleRate, channels, minKbps, maxKbps, audioBytes, offsets);
+        } catch (IOException e) {
+            f.delete();
+            return null;
+        }
+    }
+
+    private static void save(File file, FrameIndex index) {
+        if (!STORE_DIR.isDirectory() && !STORE_DIR.mkdirs()) return;
+        File target = storeFile(file);
+        File tmp = null;
+        try {
+            // unique name: the indexer and a seek can save the same file at once
+            tmp = File.createTempFile("index", ".tmp", STORE_DIR);
+            write(tmp, index);
+            // readers only ever see the old index or the new one
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // no index on disk; it's rebuilt next time
+        } finally {
+            if (tmp != null) tmp.delete();
+        }
+    }
+
+    private static void write(File f, FrameIndex index) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(index.fileLength);
+            out.writeLong(index.lastModified);
+            out.writeFloat(index.msPerFrame);
+            out.writeInt(index.sampleRate);
+            out.writeByte(index.channels);
+            out.writeShort(index.minKbps);
+            out.writeShort(index.maxKbps);
+            out.writeLong(index.audioBytes);
+            out.writeInt(index.offsets.length);
+            long prev = 0;
+            for (long o : index.offsets) {
+                out.writeInt((int) (o - prev));
+                prev = o;
+            }
+        }
+    }
+
+    private static String sha1(String s) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package audio;
+
+import javafx.application.Platform;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.util.function.Consumer;
+
+/**
+ * Plays the formats the engine can't decode itself (AAC / M4A from the admin
+ * file chooser) through a single JavaFX MediaPlayer. The JavaFX runtime is
+ * only started the first time such a file is played, instead of by every
+ * panel at construction.
+ */
+class FxMediaFallback {
+
+    private static boolean toolkitStarted;
+
+    private MediaPlayer player;
+
+    void play(String path, Runnable onReady, Runnable onEnd, Consumer<Exception> onError) {
+        stop();
+        startToolkit();
+        MediaPlayer p = new MediaPlayer(new Media(new File(path).toURI().toString()));
+        p.setOnReady(onReady);
+        p.setOnEndOfMedia(onEnd);
+        p.setOnError(() -> onError.accept(p.getError()));
+        p.play();
+        player = p;
+    }
+
+    void pause() {
+        if (player != null) player.pause();
+    }
+
+    void resume() {
+        if (player != null) player.play();
+    }
+
+    void seek(long millis) {
+        if (player != null) player.seek(Duration.millis(millis));
+    }
+
+    long getPositionMillis() {
+        return player == null ? 0 : (long) player.getCurrentTime().toMillis();
+    }
+
+    /** -1 until the media has been probed. */
+    long getDurationMillis() {
+        if (player == null) return -1;
+        Duration d = player.getTotalDuration();
+        return d == null || d.isUnknown() || d.isIndefinite() ? -1 : (long) d.toMillis();
+    }
+
+    boolean isActive() {
+        return player != null;
+    }
+
+    void stop() {
+        if (player == null) return;
+        player.stop();
+        player.dispose();
+        player = null;
+    }
+
+    private static synchronized void startToolkit() {
+        if (toolkitStarted) return;
+        Platform.setImplicitExit(false);
+        try {
+            Platform.startup(() -> {});
+        } catch (IllegalStateException alreadyRunning) {
+            // something else (e.g. a JFXPanel) started it first
+        }
+        toolkitStarted = true;
+    }
+}
@@ -0,0 +1,295 @@
+package audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The catalog fields of an MP3's ID3 tag: title, artist, genre, year and
+ * embedded cover art.
+ *
+ * Reads the ID3v2 tag (2.2, 2.3 and 2.4) at the start of the file and falls
+ * back to the 128-byte ID3v1 tag at the end for anything it didn't have.
+ * Only the tag bytes are read, never the audio. Fields that aren't present
+ * are null.
+ */
+public final class Id3Tag {
+
+    /** ID3v1 genre numbers, also used by "(n)" references in v2 TCON frames. */
+    private static final String[] GENRES = {
+            "Blues", "Classic Rock", "Country", "Dance", "Disco", "Funk", "Grunge", "Hip-Hop", "Jazz", "Metal",
+            "New Age", "Oldies", "Other", "Pop", "R&B", "Rap", "Reggae", "Rock", "Techno", "Industrial",
+            "Alternative", "Ska", "Death Metal", "Pranks", "Soundtrack", "Euro-Techno", "Ambient", "Trip-Hop",
+            "Vocal", "Jazz+Funk", "Fusion", "Trance", "Classical", "Instrumental", "Acid", "House", "Game",
+            "Sound Clip", "Gospel", "Noise", "AlternRock", "Bass", "Soul", "Punk", "Space", "Meditative",
+            "Instrumental Pop", "Instrumental Rock", "Ethnic", "Gothic", "Darkwave", "Techno-Industrial",
+            "Electronic", "Pop-Folk", "Eurodance", "Dream", "Southern Rock", "Comedy", "Cult", "Gangsta", "Top 40",
+            "Christian Rap", "Pop/Funk", "Jungle", "Native American", "Cabaret", "New Wave", "Psychadelic", "Rave",
+            "Showtunes", "Trailer", "Lo-Fi", "Tribal", "Acid Punk", "Acid Jazz", "Polka", "Retro", "Musical",
+            "Rock & Roll", "Hard Rock"
+    };
+
+    private static final Charset UTF_16 = StandardCharsets.UTF_16;
+
+    private String title;
+    private String artist;
+    private String genre;
+    private String year;
+    private byte[] art;
+    private String artMimeType;
+    private int artType = -1; // APIC picture type of art
+
+    private Id3Tag() {}
+
+    public String getTitle() { return title; }
+    public String getArtist() { return artist; }
+    public String getGenre() { return genre; }
+    /** Four-digit year, or null. */
+    public String getYear() { return year; }
+    /** The front cover (or first picture) as stored in the file, or null. */
+    public byte[] getArt() { return art; }
+    public String getArtMimeType() { return artMimeType; }
+
+    /** "jpg" or "png" for {@link #getArt()}, from its MIME type or magic bytes. */
+    public String getArtExtension() {
+        if (art == null) return null;
+        if (art.length > 3 && (art[0] & 0xFF) == 0x89 && art[1] == 'P') return "png";
+        if (artMimeType != null && artMimeType.toLowerCase(Locale.ROOT).contains("png")) return "png";
+        return "jpg";
+    }
+
+    /** The tag of {@code file}; empty (all null) if it has none. */
+    public static Id3Tag read(File file) throws IOException {
+        Id3Tag tag = new Id3Tag();
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            readV2(in, tag);
+            if (tag.title == null || tag.artist == null || tag.genre == null || tag.year == null) readV1(in, tag);
+        }
+        return tag;
+    }
+
+    // ===== ID3v2 =====
+
+    private static void readV2(RandomAccessFile in, Id3Tag tag) throws IOException {
+        if (in.length() < 10) return;
+        byte[] header = new byte[10];
+        in.seek(0);
+        in.readFully(header);
+        if (header[0] != 'I' || header[1] != 'D' || header[2] != '3') return;
+        int version = header[3];
+        if (version < 2 || version > 4) return;
+        int flags = header[5] & 0xFF;
+        int size = syncsafe(header, 6);
+        if (size <= 0 || size > in.length() - 10) return;
+
+        byte[] body = new byte[size];
+        in.readFully(body);
+        // before 2.4 unsynchronisation applies to the whole tag at once
+        if ((flags & 0x80) != 0 && version < 4) body = unsynchronise(body, 0, body.length);
+
+        int pos = 0;
+        if ((flags & 0x40) != 0 && version >= 3) {
+            int extended = version == 4 ? syncsafe(body, 0) : int32(body, 0) + 4;
+            pos = Math.max(0, extended);
+        }
+
+        int idLength = version == 2 ? 3 : 4;
+        int headerLength = version == 2 ? 6 : 10;
+        while (pos + headerLength <= body.length) {
+            if (body[pos] == 0) break; // padding
+            String id = new String(body, pos, idLength, StandardCharsets.ISO_8859_1);
+            int frameSize = version == 2 ? int24(body, pos + 3)
+                    : version == 4 ? syncsafe(body, pos + 4) : int32(body, pos + 4);
+            int frameFlags = version == 2 ? 0 : ((body[pos + 8] & 0xFF) << 8) | (body[pos + 9] & 0xFF);
+            int start = pos + headerLength;
+            if (frameSize <= 0 || start + frameSize > body.length) break;
+            pos = start + frameSize;
+
+            // compressed or encrypted frames aren't worth supporting for four text fields
+            boolean skip = version == 3 ? (frameFlags & 0x00C0) != 0 : version == 4 && (frameFlags & 0x000C) != 0;
+            if (skip) continue;
+            byte[] frame = body;
+            int from = start;
+            int length = frameSize;
+            if (version == 4 && (frameFlags & 0x0001) != 0) { // data length indicator
+                from += 4;
+                length -= 4;
+            }
+            if (version == 4 && (frameFlags & 0x0002) != 0) { // per-frame unsynchronisation
+                frame = unsynchronise(body, from, length);
+                from = 0;
+                length = frame.length;
+            }
+            if (length <= 0) continue;
+            applyFrame(tag, id, frame, from, length);
+        }
+    }
+
+    private static void applyFrame(Id3Tag tag, String id, byte[] b, int from, int length) {
+        switch (id) {
+            case "TIT2": case "TT2":
+                if (tag.title == null) tag.title = text(b, from, length);
+                break;
+            case "TPE1": case "TP1":
+                if (tag.artist == null) tag.artist = text(b, from, length);
+                break;
+            case "TCON": case "TCO":
+                if (tag.genre == null) tag.genre = genre(text(b, from, length));
+                break;
+            case "TDRC": case "TYER": case "TYE": case "TORY": case "TDOR":
+                if (tag.year == null) tag.year = year(text(b, from, length));
+                break;
+            case "APIC":
+                picture(tag, b, from, length, false);
+                break;
+            case "PIC":
+                picture(tag, b, from, length, true);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /** Keeps the front cover (type 3) over any other picture. */
+    private static void picture(Id3Tag tag, byte[] b, int from, int length, boolean v22) {
+        int end = from + length;
+        int encoding = b[from];
+        int p = from + 1;
+        String mime;
+        if (v22) {
+            if (p + 3 > end) return;
+            mime = "image/" + new String(b, p, 3, StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT);
+            p += 3;
+        } else {
+            int z = p;
+            while (z < end && b[z] != 0) z++;
+            mime = new String(b, p, z - p, StandardCharsets.ISO_8859_1);
+            p = z + 1;
+        }
+        if (p >= end) return;
+        int type = b[p++] & 0xFF;
+        p = skipString(b, p, end, encoding);
+        if (p >= end) return;
+        if (tag.art != null && (type != 3 || tag.artType == 3)) return;
+        tag.art = Arrays.copyOfRange(b, p, end);
+        tag.artMimeType = mime;
+        tag.artType = type;
+    }
+
+    private static String text(byte[] b, int from, int length) {
+        int encoding = b[from];
+        String s = decode(b, from + 1, length - 1, encoding);
+        // multiple values are NUL-separated in 2.4; the first is the one we show
+        int nul = s.indexOf('\0');
+        if (nul >= 0) s = s.substring(0, nul);
+        s = s.trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    private static String decode(byte[] b, int from, int length, int encoding) {
+        if (length <= 0) return "";
+        switch (encoding) {
+            case 1: return new String(b, from, length, UTF_16);
+            case 2: return new String(b, from, length, StandardCharsets.UTF_16BE);
+            case 3: return new String(b, from, length, StandardCharsets.UTF_8);
+            default: return new String(b, from, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static int skipString(byte[] b, int p, int end, int encoding) {
+        if (encoding == 1 || encoding == 2) {
+            while (p + 1 < end && (b[p] != 0 || b[p + 1] != 0)) p += 2;
+            return p + 2;
+        }
+        while (p < end && b[p] != 0) p++;
+        return p + 1;
+    }
+
+    /** "(17)", "17", "(17)Rock" or "Rock" to a genre name. */
+    private static String genre(String s) {
+        if (s == null) return null;
+        String g = s;
+        if (g.startsWith("(")) {
+            int close = g.indexOf(')');
+            if (close > 0) {
+                String rest = g.substring(close + 1).trim();
+                if (!rest.isEmpty()) return rest;
+                g = g.substring(1, close);
+            }
+        }
+        if (g.matches("\\d{1,3}")) {
+            int n = Integer.parseInt(g);
+            return n < GENRES.length ? GENRES[n] : null;
+        }
+        return g;
+    }
+
+    private static String year(String s) {
+        if (s == null || s.length() < 4) return null;
+        String y = s.substring(0, 4);
+        return y.matches("\\d{4}") && !y.equals("0000") ? y : null;
+    }
+
+    // ===== ID3v1 =====
+
+    private static void readV1(RandomAccessFile in, Id3Tag tag) throws IOException {
+        long length = in.length();
+        if (length < 128) return;
+        byte[] b = new byte[128];
+        in.seek(length - 128);
+        in.readFully(b);
+        if (b[0] != 'T' || b[1] != 'A' || b[2] != 'G') return;
+        String title = v1Field(b, 3, 30);
+        String artist = v1Field(b, 33, 30);
+        // encoders write an all-zero v1 tag whose genre byte 0 would read as "Blues"
+        if (title == null && artist == null) return;
+        if (tag.title == null) tag.title = title;
+        if (tag.artist == null) tag.artist = artist;
+        if (tag.year == null) tag.year = year(v1Field(b, 93, 4));
+        int g = b[127] & 0xFF;
+        if (tag.genre == null && g < GENRES.length) tag.genre = GENRES[g];
+    }
+
+    private static String v1Field(byte[] b, int from, int length) {
+        int end = from;
+        while (end < from + length && b[end] != 0) end++;
+        String s = new String(b, from, end - from, StandardCharsets.ISO_8859_1).trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    // ===== BYTES =====
+
+    private static int syncsafe(byte[] b, int p) {
+        return ((b[p] & 0x7F) << 21) | ((b[p + 1] & 0x7F) << 14) | ((b[p + 2] & 0x7F) << 7) | (b[p + 3] & 0x7F);
+    }
+
+    private static int int32(byte[] b, int p) {
+        return ((b[p] & 0xFF) << 24) | ((b[p + 1] & 0xFF) << 16) | ((b[p + 2] & 0xFF) << 8) | (b[p + 3] & 0xFF);
+    }
+
+    private static int int24(byte[] b, int p) {
+        return ((b[p] & 0xFF) << 16) | ((b[p + 1] & 0xFF) << 8) | (b[p + 2] & 0xFF);
+    }
+
+    /** Drop the 0x00 stuffed after every 0xFF. */
+    private static byte[] unsynchronise(byte[] b, int from, int length) {
+        byte[] out = new byte[length];
+        int n = 0;
+        for (int i = from; i < from + length; i++) {
+            out[n++] = b[i];
+            if ((b[i] & 0xFF) == 0xFF && i + 1 < from + length && b[i + 1] == 0) i++;
+        }
+        return n == length ? out : Arrays.copyOf(out, n);
+    }
+
+    @Override
+    public String toString() {
+        return (artist != null ? artist : "?") + " - " + (title != null ? title : "?")
+                + (genre != null ? " [" + genre + "]" : "") + (year != null ? " (" + year + ")" : "")
+                + (art != null ? " +art" : "");
+    }
+}
@@ -0,0 +1,174 @@
+package audio;
+
+import javazoom.jl.decoder.*;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * MP3 to PCM via JLayer's low-level Bitstream/Decoder, one frame per read.
+ * Replaces AdvancedPlayer, which owned its own audio device and thread.
+ *
+ * Seeks go through the file's {@link FrameIndex}: the stream is reopened at the
+ * target frame's byte offset rather than skipping frames from the start.
+ * The file is read through one shared {@link AudioSource}, so those
+ * reopens are new streams over a channel that's already open.
+ */
+class Mp3Decoder implements TrackDecoder {
+
+    /**
+     * Layer III frames can borrow bits from up to ~2 earlier frames (the bit
+     * reservoir), so a seek starts decoding this many frames early and drops them.
+     */
+    private static final int PRIMING_FRAMES = 2;
+
+    private final String path;
+    private final File file;
+    private final AudioSource source;
+    private Bitstream bitstream;
+    private boolean closed;
+    private Decoder decoder;
+    private AudioFormat format;
+    private long durationMillis = -1;
+    private double positionMillis;
+
+    // first frame is decoded up front to learn the output format
+    private byte[] primed;
+    private int primedLength;
+
+    /** {@code playing}: the track is going to play, so get its index ready; false for a pre-roll. */
+    Mp3Decoder(String path, boolean playing) throws IOException {
+        this.path = path;
+        this.file = new File(path);
+        this.source = AudioSource.open(file);
+
+        if (playing) {
+            FrameIndex index = FrameIndex.ifAvailable(file);
+            if (index != null) durationMillis = index.getDurationMillis();
+            else FrameIndex.prefetch(file); // ready by the time anyone drags the progress bar
+        }
+
+        try {
+            open(0);
+            primed = new byte[MAX_CHUNK];
+            primedLength = decodeFrame(primed);
+            if (primedLength < 0) throw new IOException("No MP3 frames in " + path);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void open(long offset) {
+        closeStream();
+        bitstream = new Bitstream(source.stream(offset));
+        decoder = new Decoder();
+        positionMillis = 0;
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public int read(byte[] dst) throws IOException {
+        if (primed != null) {
+            System.arraycopy(primed, 0, dst, 0, primedLength);
+            primed = null;
+            return primedLength;
+        }
+        return decodeFrame(dst);
+    }
+
+    private int decodeFrame(byte[] dst) throws IOException {
+        try {
+            Header h = bitstream.readFrame();
+            if (h == null) return -1;
+            if (durationMillis < 0) durationMillis = (long) h.total_ms((int) source.length());
+
+            SampleBuffer out = (SampleBuffer) decoder.decodeFrame(h, bitstream);
+            bitstream.closeFrame();
+            positionMillis += h.ms_per_frame();
+
+            if (format == null) {
+                format = new AudioFormat(decoder.getOutputFrequency(), 16, decoder.getOutputChannels(), true, false);
+            }
+            return toBytes(out.getBuffer(), out.getBufferLength(), dst);
+        } catch (JavaLayerException e) {
+            throw new IOException("Cannot decode " + path, e);
+        }
+    }
+
+    private static int toBytes(short[] samples, int count, byte[] dst) {
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            short s = samples[i];
+            dst[n++] = (byte) s;
+            dst[n++] = (byte) (s >> 8);
+        }
+        return n;
+    }
+
+    @Override
+    public long getPositionMillis() {
+        return (long) positionMillis;
+    }
+
+    @Override
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public void seek(long millis) throws IOException {
+        primed = null;
+        FrameIndex index = FrameIndex.forFile(file);
+        if (index == null) {
+            seekByScanning(millis);
+            return;
+        }
+        durationMillis = index.getDurationMillis();
+
+        int target = index.frameAt(millis);
+        int first = Math.max(0, target - PRIMING_FRAMES);
+        open(index.offsetOf(first));
+        byte[] discard = new byte[MAX_CHUNK];
+        for (int i = first; i < target; i++) {
+            if (decodeFrame(discard) < 0) break;
+        }
+        positionMillis = index.millisOf(target);
+    }
+
+    /** No index (not a clean MP3 stream): reopen and skip frame headers from the start. */
+    private void seekByScanning(long millis) throws IOException {
+        open(0);
+        try {
+            Header h;
+            while (positionMillis + 0.5 < millis && (h = bitstream.readFrame()) != null) {
+                positionMillis += h.ms_per_frame();
+                bitstream.closeFrame();
+            }
+        } catch (BitstreamException e) {
+            throw new IOException("Cannot seek in " + path, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        closeStream();
+        source.close();
+    }
+
+    private void closeStream() {
+        if (bitstream == null) return;
+        try {
+            bitstream.close();
+        } catch (BitstreamException ignored) {
+        }
+        bitstream = null;
+    }
+}
@@ -0,0 +1,104 @@
+package audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * WAV / AIFF / AU through Java Sound, normalized to 16-bit signed little-endian.
+ * Reads come from the track's shared {@link AudioSource}, so the reopen on
+ * seek is a new stream over the open file and the skip that follows is a
+ * position change.
+ */
+class PcmDecoder implements TrackDecoder {
+
+    private final String path;
+    private final AudioSource source;
+    private AudioInputStream in;
+    private boolean closed;
+    private AudioFormat format;
+    private long durationMillis = -1;
+    private long bytesRead;
+
+    PcmDecoder(String path) throws IOException {
+        this.path = path;
+        this.source = AudioSource.open(new File(path));
+        try {
+            open();
+        } catch (IOException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    private void open() throws IOException {
+        closeStream();
+        try {
+            AudioInputStream src = AudioSystem.getAudioInputStream(source.stream(0));
+            AudioFormat s = src.getFormat();
+            AudioFormat target = new AudioFormat(s.getSampleRate(), 16, s.getChannels(), true, false);
+            in = s.matches(target) ? src : AudioSystem.getAudioInputStream(target, src);
+            format = in.getFormat();
+            if (src.getFrameLength() > 0) {
+                durationMillis = (long) (src.getFrameLength() * 1000L / s.getFrameRate());
+            }
+            bytesRead = 0;
+        } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+            throw new IOException("Unsupported audio file " + path, e);
+        }
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public int read(byte[] dst) throws IOException {
+        int frame = format.getFrameSize();
+        int n = in.read(dst, 0, dst.length - dst.length % frame);
+        if (n > 0) bytesRead += n;
+        return n;
+    }
+
+    @Override
+    public long getPositionMillis() {
+        return (long) (bytesRead / format.getFrameSize() * 1000L / format.getFrameRate());
+    }
+
+    @Override
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public void seek(long millis) throws IOException {
+        open();
+        long target = (long) (millis * format.getFrameRate() / 1000) * format.getFrameSize();
+        while (bytesRead < target) {
+            long skipped = in.skip(target - bytesRead);
+            if (skipped <= 0) break;
+            bytesRead += skipped;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        closeStream();
+        source.close();
+    }
+
+    private void closeStream() {
+        if (in == null) return;
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+        in = null;
+    }
+}
@@ -0,0 +1,84 @@
+package audio;
+
+/**
+ * Fixed-size byte ring between exactly one producer (the engine thread,
+ * decoding) and one consumer (the output thread, feeding the line).
+ *
+ * No locks: each side only ever advances its own position, and the volatile
+ * write of that position publishes the bytes copied before it. Positions are
+ * absolute byte counts, so full vs. empty never needs a spare slot.
+ */
+final class PcmRingBuffer {
+
+    private final byte[] buf;
+    private final int mask;
+
+    // written by the producer only
+    private volatile long writePos;
+    private volatile long discardTo;
+    // written by the consumer only
+    private volatile long readPos;
+
+    /** Capacity is rounded up to a power of two. */
+    PcmRingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(1024, minCapacity - 1)) << 1;
+        buf = new byte[capacity];
+        mask = capacity - 1;
+    }
+
+    int capacity() {
+        return buf.length;
+    }
+
+    /** Bytes waiting to be read. Exact on the consumer side, a snapshot elsewhere. */
+    int size() {
+        return (int) (writePos - Math.max(readPos, discardTo));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // ===== PRODUCER =====
+
+    /** Room the producer can write without overwriting unread bytes. */
+    int free() {
+        return buf.length - (int) (writePos - readPos);
+    }
+
+    /** Copy up to {@code len} bytes in; returns how many fitted. */
+    int write(byte[] src, int off, int len) {
+        long w = writePos;
+        int n = Math.min(len, buf.length - (int) (w - readPos));
+        if (n <= 0) return 0;
+        int at = (int) (w & mask);
+        int first = Math.min(n, buf.length - at);
+        System.arraycopy(src, off, buf, at, first);
+        System.arraycopy(src, off + first, buf, 0, n - first);
+        writePos = w + n;
+        return n;
+    }
+
+    /** Drop everything written so far; the consumer skips it on its next read. */
+    void discard() {
+        discardTo = writePos;
+    }
+
+    // ===== CONSUMER =====
+
+    /** Copy up to {@code len} bytes out; returns how many were available. */
+    int read(byte[] dst, int off, int len) {
+        long r = Math.max(readPos, discardTo);
+        int n = Math.min(len, (int) (writePos - r));
+        if (n <= 0) {
+            readPos = r;
+            return 0;
+        }
+        int at = (int) (r & mask);
+        int first = Math.min(n, buf.length - at);
+        System.arraycopy(buf, at, dst, off, first);
+        System.arraycopy(buf, 0, dst, off + first, n - first);
+        readPos = r + n;
+        return n;
+    }
+}
@@ -0,0 +1,624 @@
+package audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.swing.SwingUtilities;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The application's one audio player.
+ *
+ * Every panel talks to this singleton instead of owning a player of its own,
+ * so starting a song anywhere replaces whatever was playing. All decoding
+ * happens on one engine thread, which fills the {@link AudioOutput} ring that
+ * a separate output thread drains into the (single) line; the public methods
+ * only enqueue commands for the engine thread, so they are safe to call from
+ * the EDT or anywhere else and never block on audio I/O. Listeners are told
+ * about state changes on the EDT.
+ *
+ * Queued tracks play gaplessly: while the current track is in its last
+ * stretch, the engine opens the next one and decodes its first couple of
+ * seconds between writes. At end of stream that PCM goes straight into the
+ * same line with no drain, flush or reopen, so consecutive tracks in the
+ * same format join sample-for-sample.
+ *
+ * {@link #state} only ever changes on the engine thread, through
+ * {@link #setState}, which rejects transitions the machine doesn't allow.
+ * play / playAll / stop replace everything before them, so when several are
+ * queued (rapid clicks) only the newest one runs; the others never open a
+ * decoder. Callbacks from a track (the JavaFX fallback's end and error
+ * events) carry that track's serial number and are dropped once it has been
+ * replaced, so a late "finished" can't skip the track that followed it.
+ *
+ * Playback position goes out at most every {@link #POSITION_INTERVAL_MILLIS}
+ * rather than per frame, and at most one delivery is ever waiting on the EDT:
+ * updates that arrive while one is pending just overwrite the values it will
+ * read, so a busy EDT sees fewer, fresher updates instead of a backlog.
+ */
+public class PlaybackEngine {
+
+    /**
+     * IDLE: nothing loaded yet, or the queue played out or failed.
+     * LOADING: opening a track. STOPPED: the user stopped playback.
+     */
+    public enum State {
+        IDLE, LOADING, PLAYING, PAUSED, STOPPED;
+
+        /** Whether there is a track to pause, resume or seek in. */
+        public boolean hasTrack() {
+            return this == PLAYING || this == PAUSED;
+        }
+
+        boolean canMoveTo(State next) {
+            switch (next) {
+                case IDLE:
+                case STOPPED:
+                case LOADING:
+                    return true;
+                case PLAYING:
+                    return this == LOADING || this == PAUSED;
+                case PAUSED:
+                    return this == PLAYING;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /** Output line buffer; the ring in front of it absorbs decode stalls. */
+    private static final int LINE_BUFFER_MILLIS = 100;
+
+    /** Default decoded-PCM ring depth between the engine and output threads. */
+    private static final int DEFAULT_RING_MILLIS = 500;
+
+    /** How long the engine waits for ring space before checking commands again. */
+    private static final long RING_WAIT_MILLIS = 5;
+
+    /** Minimum spacing of position updates to listeners. */
+    private static final long POSITION_INTERVAL_MILLIS = 200;
+
+    /** Start preparing the next queued track this long before the current one ends. */
+    private static final long PREPARE_AHEAD_MILLIS = 15_000;
+
+    /** How much of the next track is decoded ahead of the transition. */
+    private static final int PREROLL_MILLIS = 2_000;
+
+    private static final PlaybackEngine INSTANCE = new PlaybackEngine();
+
+    private final BlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+    // bumped by every play / playAll / stop; a replacing command runs only if it is still the latest
+    private final AtomicLong latestReplace = new AtomicLong();
+    private final List<PlaybackListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile State state = State.IDLE;
+    private volatile String currentPath;
+    // what the listeners will be told next; a pending EDT delivery reads the latest values
+    private volatile long positionMillis;
+    private volatile long durationMillis = -1;
+    private final AtomicBoolean positionPending = new AtomicBoolean();
+
+    // ===== engine-thread state =====
+    private final Deque<String> upNext = new ArrayDeque<>();
+    private final byte[] chunk = new byte[TrackDecoder.MAX_CHUNK * 2];
+    private final FxMediaFallback fallback = new FxMediaFallback();
+    private final AudioOutput output = new AudioOutput(DEFAULT_RING_MILLIS, this::outputFailed);
+    private final PrerollCache prerolls = PrerollCache.getInstance();
+    private TrackDecoder decoder;
+    // identifies the current track to callbacks that arrive after it may have been replaced
+    private long trackSerial;
+    // decoder hit end of stream; waiting for the output to play the rest out
+    private boolean draining;
+    private long lastPositionNanos;
+    // next queued track, opened and partly decoded ahead of time
+    private Prepared prepared;
+    // PCM to write before reading the decoder again (a prepared track's pre-roll)
+    private byte[] carry;
+    private int carryOffset;
+    private int carryLength;
+
+    private PlaybackEngine() {
+        Thread engine = new Thread(this::run, "audio-engine");
+        engine.setDaemon(true);
+        engine.setPriority(Thread.MAX_PRIORITY);
+        engine.start();
+    }
+
+    public static PlaybackEngine getInstance() {
+        return INSTANCE;
+    }
+
+    // ===== COMMANDS =====
+
+    /** Play a file now, dropping anything queued after the current track. */
+    public void play(String path) {
+        postReplacing(() -> {
+            upNext.clear();
+            discardPrepared();
+            start(path);
+        });
+    }
+
+    /** Play the first path and queue the rest behind it. */
+    public void playAll(List<String> paths) {
+        if (paths.isEmpty()) return;
+        List<String> copy = List.copyOf(paths);
+        postReplacing(() -> {
+            upNext.clear();
+            discardPrepared();
+            upNext.addAll(copy.subList(1, copy.size()));
+            start(copy.get(0));
+        });
+    }
+
+    /** Add a track to the end of the queue; starts it straight away if nothing is playing. */
+    public void enqueue(String path) {
+        post(() -> {
+            if (state == State.IDLE || state == State.STOPPED) start(path);
+            else upNext.add(path);
+        });
+    }
+
+    /** Skip to the next queued track and play it (even if paused), or stop if there is none. */
+    public void next() {
+        post(() -> {
+            if (!state.hasTrack()) return;
+            output.flush(); // don't let the skipped track's tail play out
+            advance();
+            // a started track always plays, but a spliced-in one is still paused: play it too
+            if (state == State.PAUSED) resumeNow();
+        });
+    }
+
+    public void pause() {
+        post(this::pauseNow);
+    }
+
+    public void resume() {
+        post(this::resumeNow);
+    }
+
+    public void togglePause() {
+        post(() -> {
+            if (state == State.PLAYING) pauseNow();
+            else if (state == State.PAUSED) resumeNow();
+        });
+    }
+
+    public void seek(long millis) {
+        post(() -> {
+            if (!state.hasTrack()) return;
+            if (fallback.isActive()) {
+                fallback.seek(millis);
+                publishPosition(true);
+                return;
+            }
+            try {
+                output.flush();
+                carry = null;
+                draining = false;
+                decoder.seek(Math.max(0, millis));
+                publishPosition(true);
+            } catch (Exception e) {
+                fail(currentPath, e);
+            }
+        });
+    }
+
+    /** Stop playback and clear the queue. */
+    public void stop() {
+        postReplacing(() -> {
+            upNext.clear();
+            discardPrepared();
+            closeTrack();
+            if (state != State.IDLE) setState(State.STOPPED);
+        });
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /** Path of the track playing or paused, or null. */
+    public String getCurrentTrack() {
+        return currentPath;
+    }
+
+    /** Position of the audio being heard, as of the last update. */
+    public long getPositionMillis() {
+        return positionMillis;
+    }
+
+    /** Length of the current track, or -1 if unknown. */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Depth of the decoded-audio ring, in milliseconds. Deeper rides out longer
+     * decode stalls at the cost of memory; applies from the next track.
+     */
+    public void setBufferMillis(int millis) {
+        output.setBufferMillis(Math.max(50, millis));
+    }
+
+    public int getBufferMillis() {
+        return output.getBufferMillis();
+    }
+
+    /** Decoded audio waiting in the ring. */
+    public long getBufferedMillis() {
+        return output.getBufferedMillis();
+    }
+
+    /** Times the line nearly ran dry because decoding fell behind. */
+    public long getUnderrunCount() {
+        return output.getUnderrunCount();
+    }
+
+    public void addListener(PlaybackListener l) {
+        listeners.add(l);
+    }
+
+    public void removeListener(PlaybackListener l) {
+        listeners.remove(l);
+    }
+
+    private void post(Runnable command) {
+        commands.add(command);
+    }
+
+    /** Post a command that makes every earlier play / playAll / stop moot. */
+    private void postReplacing(Runnable command) {
+        long ticket = latestReplace.incrementAndGet();
+        post(() -> {
+            if (ticket == latestReplace.get()) command.run();
+        });
+    }
+
+    // ===== ENGINE THREAD =====
+
+    private void run() {
+        boolean progressed = false;
+        while (true) {
+            try {
+                // idle or paused: sleep until told otherwise; playing: wait only while the ring is full
+                Runnable c;
+                if (state != State.PLAYING) c = commands.take();
+                else if (decoder == null) c = commands.poll(POSITION_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                else if (progressed) c = commands.poll();
+                else c = commands.poll(RING_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                while (c != null) {
+                    c.run();
+                    c = commands.poll();
+                }
+                if (state == State.PLAYING) {
+                    progressed = decoder != null && pump();
+                    publishPosition(false);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                fail(currentPath, e);
+            }
+        }
+    }
+
+    /** Decode one chunk into the ring; false if there was no room (or nothing to do) yet. */
+    private boolean pump() throws Exception {
+        if (draining) {
+            if (!output.isEmpty()) return false;
+            output.drain();
+            draining = false;
+            finishTrack();
+            return true;
+        }
+        if (carry != null) {
+            int n = output.offer(carry, carryOffset, carryLength - carryOffset);
+            carryOffset += n;
+            if (carryOffset == carryLength) carry = null;
+            return n > 0;
+        }
+        if (output.free() < chunk.length) return false;
+        int n = decoder.read(chunk);
+        if (n < 0) {
+            boolean gapless = prepared != null && prepared.decoder != null
+                    && prepared.path.equals(upNext.peek())
+                    && prepared.decoder.getFormat().matches(output.getFormat());
+            if (gapless) {
+                finishTrack();
+            } else {
+                output.endOfStream();
+                draining = true;
+            }
+            return true;
+        }
+        output.offer(chunk, 0, n);
+        prepareNext();
+        return true;
+    }
+
+    private void finishTrack() {
+        String finished = currentPath;
+        fire(l -> l.trackFinished(finished));
+        advance();
+    }
+
+    /** One chunk of work towards having the next queued track ready to splice in. */
+    private void prepareNext() {
+        String next = upNext.peek();
+        if (next == null) return;
+        if (prepared != null && !prepared.path.equals(next)) discardPrepared();
+
+        if (prepared == null) {
+            long remaining = decoder.getDurationMillis() - decoder.getPositionMillis();
+            if (decoder.getDurationMillis() >= 0 && remaining > PREPARE_AHEAD_MILLIS) return;
+            prepared = new Prepared(next);
+            try {
+                prepared.decoder = TrackDecoder.open(next);
+                AudioFormat f = prepared.decoder.getFormat();
+                prepared.pcm = new byte[(int) (f.getFrameRate() * f.getFrameSize() * PREROLL_MILLIS / 1000) + chunk.length];
+            } catch (Exception e) {
+                // unsupported or unreadable: start() deals with it at the transition
+                prepared.done = true;
+            }
+            return;
+        }
+        if (prepared.done) return;
+        try {
+            int n = prepared.decoder.read(chunk);
+            if (n < 0) {
+                prepared.done = true;
+                return;
+            }
+            System.arraycopy(chunk, 0, prepared.pcm, prepared.length, n);
+            prepared.length += n;
+            if (prepared.pcm.length - prepared.length < chunk.length) prepared.done = true;
+        } catch (Exception e) {
+            discardPrepared();
+        }
+    }
+
+    private void pauseNow() {
+        if (state != State.PLAYING) return;
+        if (fallback.isActive()) fallback.pause();
+        else output.stop();
+        setState(State.PAUSED);
+        publishPosition(true);
+    }
+
+    private void resumeNow() {
+        if (state != State.PAUSED) return;
+        if (fallback.isActive()) fallback.resume();
+        else output.start();
+        setState(State.PLAYING);
+    }
+
+    private void advance() {
+        draining = false;
+        String next = upNext.poll();
+        if (next == null) {
+            closeTrack();
+            setState(State.IDLE);
+        } else if (prepared != null && prepared.decoder != null && prepared.path.equals(next)
+                && prepared.decoder.getFormat().matches(output.getFormat())) {
+            spliceIn(prepared);
+        } else {
+            discardPrepared();
+            start(next);
+        }
+    }
+
+    /** Switch to a prepared track without touching the output: its pre-roll is queued next. */
+    private void spliceIn(Prepared next) {
+        prepared = null;
+        decoder.close();
+        decoder = next.decoder;
+        carry = next.pcm;
+        carryOffset = 0;
+        carryLength = next.length;
+        if (carryLength == 0) carry = null;
+        trackSerial++;
+        currentPath = next.path;
+        fire(l -> l.trackStarted(next.path));
+        publishPosition(true);
+        prefetchNext();
+    }
+
+    private void discardPrepared() {
+        if (prepared == null) return;
+        if (prepared.decoder != null) prepared.decoder.close();
+        prepared = null;
+    }
+
+    private void start(String path) {
+        closeTrack();
+        long serial = ++trackSerial;
+        setState(State.LOADING);
+        if (path == null || !new File(path).isFile()) {
+            fail(path, new java.io.FileNotFoundException("Audio file not found: " + path));
+            return;
+        }
+        try {
+            PrerollCache.Preroll head = prerolls.get(path);
+            if (head != null) {
+                startFromPreroll(path, head);
+            } else {
+                decoder = TrackDecoder.open(path);
+                output.resize();
+                output.open(decoder.getFormat(), LINE_BUFFER_MILLIS);
+                output.start();
+            }
+        } catch (TrackDecoder.UnsupportedFormatException e) {
+            // stays LOADING until the media player says it's ready
+            fallback.play(path,
+                    () -> post(() -> {
+                        if (serial == trackSerial && state == State.LOADING) setState(State.PLAYING);
+                    }),
+                    () -> post(() -> {
+                        if (serial == trackSerial) finishTrack();
+                    }),
+                    err -> post(() -> {
+                        if (serial == trackSerial) fail(path, err);
+                    }));
+            currentPath = path;
+            fire(l -> l.trackStarted(path));
+            return;
+        } catch (Exception e) {
+            fail(path, e);
+            return;
+        }
+        currentPath = path;
+        fire(l -> l.trackStarted(path));
+        setState(State.PLAYING);
+        publishPosition(true);
+        prefetchNext();
+    }
+
+    /**
+     * Start the line on the cached opening of the track, then open the real
+     * decoder and fast-forward it past what the pre-roll covers. The decoder
+     * is deterministic, so skipping the same number of output bytes continues
+     * exactly where the cached PCM stops.
+     */
+    private void startFromPreroll(String path, PrerollCache.Preroll head) throws Exception {
+        output.resize();
+        output.open(head.format, LINE_BUFFER_MILLIS);
+        carry = head.pcm;
+        carryLength = head.pcm.length;
+        carryOffset = output.offer(carry, 0, carryLength);
+        output.start();
+
+        decoder = TrackDecoder.open(path);
+        if (!decoder.getFormat().matches(head.format)) {
+            // re-encoded in place with the same length and mtime; play it the slow way
+            prerolls.invalidate(path);
+            output.flush();
+            carry = null;
+            output.open(decoder.getFormat(), LINE_BUFFER_MILLIS);
+            output.start();
+            return;
+        }
+        long toSkip = head.pcm.length;
+        while (toSkip > 0) {
+            int n = decoder.read(chunk);
+            if (n < 0) break;
+            if (n > toSkip) {
+                // decoder's chunking differs from the pre-roll's: keep the part past the skip point
+                int keep = (int) (n - toSkip);
+                byte[] joined = Arrays.copyOfRange(carry, carryOffset, carryLength + keep);
+                System.arraycopy(chunk, n - keep, joined, carryLength - carryOffset, keep);
+                carry = joined;
+                carryOffset = 0;
+                carryLength = joined.length;
+            }
+            toSkip -= n;
+        }
+        if (carryOffset == carryLength) carry = null;
+    }
+
+    /** The track after this one is the likeliest next click; have its opening ready. */
+    private void prefetchNext() {
+        String next = upNext.peek();
+        if (next != null) prerolls.prefetch(next);
+    }
+
+    private void closeTrack() {
+        fallback.stop();
+        carry = null;
+        if (decoder != null) {
+            decoder.close();
+            decoder = null;
+        }
+        draining = false;
+        output.stop();
+        output.flush();
+        currentPath = null;
+        publishPosition(true);
+    }
+
+    /** Refresh position and duration, and notify listeners if the interval has passed (or forced). */
+    private void publishPosition(boolean force) {
+        long now = System.nanoTime();
+        if (!force && now - lastPositionNanos < TimeUnit.MILLISECONDS.toNanos(POSITION_INTERVAL_MILLIS)) return;
+        lastPositionNanos = now;
+
+        if (decoder != null) {
+            // the decoder is ahead of the speaker by whatever is still queued
+            AudioFormat f = decoder.getFormat();
+            long queued = output.getQueuedMillis();
+            if (carry != null) queued += (long) ((carryLength - carryOffset) / f.getFrameSize() * 1000L / f.getFrameRate());
+            positionMillis = Math.max(0, decoder.getPositionMillis() - queued);
+            durationMillis = decoder.getDurationMillis();
+        } else if (fallback.isActive()) {
+            positionMillis = fallback.getPositionMillis();
+            durationMillis = fallback.getDurationMillis();
+        } else {
+            positionMillis = 0;
+            durationMillis = -1;
+        }
+
+        if (listeners.isEmpty() || !positionPending.compareAndSet(false, true)) return;
+        SwingUtilities.invokeLater(() -> {
+            positionPending.set(false);
+            long position = positionMillis;
+            long duration = durationMillis;
+            for (PlaybackListener l : listeners) l.positionChanged(position, duration);
+        });
+    }
+
+    private void fail(String path, Exception e) {
+        e.printStackTrace();
+        closeTrack();
+        upNext.clear();
+        discardPrepared();
+        setState(State.IDLE);
+        fire(l -> l.playbackError(path, e));
+    }
+
+    /** The output thread lost the line; called on that thread. */
+    private void outputFailed(RuntimeException e) {
+        post(() -> {
+            // the fallback plays through its own device, so a line failure isn't about its track
+            if (state.hasTrack() && !fallback.isActive()) fail(currentPath, e);
+        });
+    }
+
+    private void setState(State s) {
+        if (state == s) return;
+        if (!state.canMoveTo(s)) throw new IllegalStateException("Cannot go from " + state + " to " + s);
+        state = s;
+        fire(l -> l.stateChanged(s));
+    }
+
+    private static class Prepared {
+        final String path;
+        TrackDecoder decoder;
+        byte[] pcm;
+        int length;
+        boolean done;
+
+        Prepared(String path) {
+            this.path = path;
+        }
+    }
+
+    private interface Event {
+        void deliver(PlaybackListener l);
+    }
+
+    private void fire(Event event) {
+        if (listeners.isEmpty()) return;
+        SwingUtilities.invokeLater(() -> {
+            for (PlaybackListener l : listeners) event.deliver(l);
+        });
+    }
+}
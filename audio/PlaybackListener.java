@@ -0,0 +1,23 @@
+package audio;
+
+/**
+ * Callbacks from {@link PlaybackEngine}. All methods are invoked on the Swing
+ * event dispatch thread, so panels can update components directly.
+ */
+public interface PlaybackListener {
+
+    default void stateChanged(PlaybackEngine.State state) {}
+
+    default void trackStarted(String path) {}
+
+    /** The track played to its end (not called when it is stopped or replaced). */
+    default void trackFinished(String path) {}
+
+    default void playbackError(String path, Exception error) {}
+
+    /**
+     * Where playback is, a few times a second while playing and right after a
+     * seek, pause or track change. Duration is -1 when it isn't known yet.
+     */
+    default void positionChanged(long positionMillis, long durationMillis) {}
+}
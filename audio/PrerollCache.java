@@ -0,0 +1,221 @@
+package audio;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * The first few seconds of decoded PCM for tracks the user is likely to play
+ * next: songs on screen, the hovered card, the engine's next queued track.
+ *
+ * On a hit the engine starts the line on this audio straight away and opens
+ * the real decoder behind it, so sound starts without waiting for the file
+ * to be opened and the first frames decoded.
+ *
+ * Bounded by bytes with least-recently-used eviction, like the image cache.
+ * Pre-rolls are decoded one at a time on a low-priority "preroll" thread,
+ * most recently requested first; requests pile up faster than they are
+ * served when scrolling, so only the newest {@link #MAX_PENDING} are kept.
+ */
+public final class PrerollCache {
+
+    /** ~30 tracks of 3 s CD-quality stereo. */
+    private static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+    private static final int DEFAULT_PREROLL_MILLIS = 3_000;
+    private static final int MAX_PENDING = 32;
+
+    private static final PrerollCache INSTANCE = new PrerollCache();
+
+    private final LinkedHashMap<String, Preroll> entries = new LinkedHashMap<>(32, 0.75f, true);
+    private final BlockingDeque<String> pending = new LinkedBlockingDeque<>();
+    // paths that can't be decoded here (fallback formats, broken files)
+    private final Set<String> undecodable = new HashSet<>();
+
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private volatile int prerollMillis = DEFAULT_PREROLL_MILLIS;
+    private long currentBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private PrerollCache() {
+        Thread worker = new Thread(this::run, "preroll");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    public static PrerollCache getInstance() {
+        return INSTANCE;
+    }
+
+    /** Decoded opening of one track, as of the file's length and mtime when decoded. */
+    static final class Preroll {
+        final AudioFormat format;
+        final byte[] pcm;
+        final long fileLength;
+        final long lastModified;
+
+        Preroll(AudioFormat format, byte[] pcm, long fileLength, long lastModified) {
+            this.format = format;
+            this.pcm = pcm;
+            this.fileLength = fileLength;
+            this.lastModified = lastModified;
+        }
+
+        boolean matches(File file) {
+            return file.length() == fileLength && file.lastModified() == lastModified;
+        }
+    }
+
+    // ===== REQUESTS =====
+
+    /** Ask for these tracks to be pre-rolled, ahead of anything asked for earlier. */
+    public void prefetch(Collection<String> paths) {
+        // added in reverse so the first path ends up at the head of the queue
+        Object[] array = paths.toArray();
+        for (int i = array.length - 1; i >= 0; i--) enqueue((String) array[i]);
+    }
+
+    public void prefetch(String path) {
+        enqueue(path);
+    }
+
+    private void enqueue(String path) {
+        if (path == null || path.isEmpty()) return;
+        synchronized (this) {
+            if (entries.containsKey(path) || undecodable.contains(path)) return;
+        }
+        pending.remove(path);
+        pending.addFirst(path);
+        while (pending.size() > MAX_PENDING) pending.pollLast();
+    }
+
+    // ===== LOOKUP =====
+
+    /** The cached opening of the track, or null. Counts towards the hit rate. */
+    synchronized Preroll get(String path) {
+        Preroll p = entries.get(path);
+        if (p != null && !p.matches(new File(path))) {
+            remove(path);
+            p = null;
+        }
+        if (p != null) hits++;
+        else misses++;
+        return p;
+    }
+
+    synchronized void invalidate(String path) {
+        remove(path);
+        undecodable.remove(path);
+    }
+
+    private void remove(String path) {
+        Preroll p = entries.remove(path);
+        if (p != null) currentBytes -= p.pcm.length;
+    }
+
+    private synchronized void put(String path, Preroll p) {
+        remove(path);
+        entries.put(path, p);
+        currentBytes += p.pcm.length;
+        Iterator<Preroll> it = entries.values().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Preroll eldest = it.next();
+            if (eldest == p) break;
+            it.remove();
+            currentBytes -= eldest.pcm.length;
+            evictions++;
+        }
+    }
+
+    // ===== WORKER =====
+
+    private void run() {
+        while (true) {
+            String path;
+            try {
+                path = pending.takeFirst();
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                if (entries.containsKey(path)) continue;
+            }
+            Preroll p = decode(path);
+            if (p != null) put(path, p);
+            else synchronized (this) {
+                undecodable.add(path);
+            }
+        }
+    }
+
+    private Preroll decode(String path) {
+        File file = new File(path);
+        if (!file.isFile()) return null;
+        long length = file.length();
+        long modified = file.lastModified();
+        try (TrackDecoder d = TrackDecoder.openHead(path)) {
+            AudioFormat f = d.getFormat();
+            int target = (int) (f.getFrameRate() * f.getFrameSize() * prerollMillis / 1000);
+            byte[] chunk = new byte[TrackDecoder.MAX_CHUNK * 2];
+            byte[] pcm = new byte[target + chunk.length];
+            int filled = 0;
+            while (filled < target) {
+                int n = d.read(chunk);
+                if (n < 0) break;
+                System.arraycopy(chunk, 0, pcm, filled, n);
+                filled += n;
+            }
+            return new Preroll(f, Arrays.copyOf(pcm, filled), length, modified);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // ===== CONFIGURATION / METRICS =====
+
+    /** Total decoded bytes to keep; shrinking evicts straight away. */
+    public synchronized void setMaxBytes(long bytes) {
+        maxBytes = bytes;
+        Iterator<Preroll> it = entries.values().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            currentBytes -= it.next().pcm.length;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /** Length of audio decoded per track; applies to pre-rolls decoded from now on. */
+    public void setPrerollMillis(int millis) {
+        prerollMillis = millis;
+    }
+
+    public synchronized long getMaxBytes() { return maxBytes; }
+    public int getPrerollMillis() { return prerollMillis; }
+    public synchronized long getCurrentBytes() { return currentBytes; }
+    public synchronized int getEntryCount() { return entries.size(); }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public int getPendingCount() { return pending.size(); }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("PrerollCache[%d tracks, %d/%d KB, hits=%d, misses=%d, evictions=%d, pending=%d]",
+                entries.size(), currentBytes / 1024, maxBytes / 1024, hits, misses, evictions, pending.size());
+    }
+}
@@ -0,0 +1,61 @@
+package audio;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Pull-style decoder producing interleaved 16-bit signed little-endian PCM.
+ * Used only from the engine thread, so implementations need no locking.
+ */
+interface TrackDecoder extends AutoCloseable {
+
+    /** Largest chunk {@link #read} will produce in one call for MP3 (1152 samples x 2 ch x 2 bytes). */
+    int MAX_CHUNK = 4608;
+
+    AudioFormat getFormat();
+
+    /** Decode the next chunk into {@code dst}; returns bytes written, or -1 at end of track. */
+    int read(byte[] dst) throws IOException;
+
+    /** Playback position of the next chunk {@link #read} will return. */
+    long getPositionMillis();
+
+    /** Total length, or -1 if unknown. */
+    long getDurationMillis();
+
+    void seek(long millis) throws IOException;
+
+    @Override
+    void close();
+
+    /** Pick a decoder by file extension, for a track that is going to play. */
+    static TrackDecoder open(String path) throws IOException, UnsupportedFormatException {
+        return open(path, true);
+    }
+
+    /**
+     * A decoder for just the opening of a track, e.g. a pre-roll: unlike
+     * {@link #open}, it doesn't queue a {@link FrameIndex} scan of the file
+     * (a seek still builds one).
+     */
+    static TrackDecoder openHead(String path) throws IOException, UnsupportedFormatException {
+        return open(path, false);
+    }
+
+    private static TrackDecoder open(String path, boolean playing) throws IOException, UnsupportedFormatException {
+        String lower = path.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".mp3")) return new Mp3Decoder(path, playing);
+        if (lower.endsWith(".wav") || lower.endsWith(".aif") || lower.endsWith(".aiff") || lower.endsWith(".au")) {
+            return new PcmDecoder(path);
+        }
+        throw new UnsupportedFormatException(path);
+    }
+
+    /** Not decodable in-process; the engine hands these to the JavaFX fallback. */
+    class UnsupportedFormatException extends Exception {
+        UnsupportedFormatException(String path) {
+            super("No in-process decoder for " + path);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package catalog;
+
+import db.ArtistRepository;
+import model.Artist;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Process-wide, read-through cache of the artist table, written through the
+ * same way as {@link SongCatalog}: MySQL first, then the cache.
+ *
+ * {@link #getVersion()} changes on every write so views built from the
+ * artist list (e.g. the artist grid) know when to rebuild instead of
+ * re-querying every time they're shown.
+ */
+public class ArtistCatalog {
+
+    private static final ArtistCatalog INSTANCE = new ArtistCatalog(new ArtistRepository());
+
+    private final ArtistRepository repository;
+
+    private final NavigableMap<Integer, Artist> byId = new TreeMap<>();
+    private volatile boolean loaded;
+    private volatile long version;
+
+    ArtistCatalog(ArtistRepository repository) {
+        this.repository = repository;
+    }
+
+    public static ArtistCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    // ===== READS =====
+
+    /** Every artist, in id order. */
+    public synchronized List<Artist> getAll() throws SQLException {
+        ensureLoaded();
+        return new ArrayList<>(byId.values());
+    }
+
+    public synchronized Artist get(int id) throws SQLException {
+        ensureLoaded();
+        return byId.get(id);
+    }
+
+    /** Changes whenever the cached artist list does. */
+    public long getVersion() {
+        return version;
+    }
+
+    // ===== WRITE-THROUGH =====
+
+    /**
+     * Insert into the DB and cache the row under its generated id. Songs
+     * already credited to this name are linked to the new row.
+     */
+    public Artist add(Artist artist) throws SQLException {
+        Artist saved;
+        synchronized (this) {
+            int id = repository.insert(artist);
+            saved = new Artist(id, artist.getName(), artist.getCountry(), artist.getImagePath());
+            if (loaded) byId.put(id, saved);
+            version++;
+        }
+        // outside this lock: SongCatalog takes its own
+        SongCatalog.getInstance().linkArtist(saved.getId(), saved.getName());
+        return saved;
+    }
+
+    public synchronized void update(Artist artist) throws SQLException {
+        repository.update(artist);
+        if (loaded) byId.put(artist.getId(), artist);
+        version++;
+    }
+
+    /** Songs keep their (now dangling) artist_id; no view lists a deleted artist, so they just stop showing. */
+    public synchronized void delete(int id) throws SQLException {
+        repository.delete(id);
+        if (loaded) byId.remove(id);
+        version++;
+    }
+
+    /** Mark the cache stale; the next read reloads it from MySQL. */
+    public synchronized void invalidate() {
+        loaded = false;
+        version++;
+    }
+
+    private void ensureLoaded() throws SQLException {
+        if (loaded) return;
+        byId.clear();
+        for (Artist a : repository.findAll()) byId.put(a.getId(), a);
+        loaded = true;
+    }
+}
@@ -0,0 +1,118 @@
+package catalog;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The song catalog saved to ~/.musicstreaming/catalog.snapshot after each
+ * full load, so the next start can read it back instead of pulling every row
+ * through JDBC.
+ *
+ * The file is a small header (format, the database time the snapshot is
+ * current as of, body length) followed by {@link SongStore}'s own columns.
+ * It is read in one go and bulk-copied into the store; {@link SongCatalog}
+ * then asks MySQL only for rows changed since that high-water mark. A file
+ * from another format, or one that's truncated, is deleted and ignored.
+ *
+ * The file isn't memory-mapped: a mapping lives until the buffer is garbage
+ * collected, and on Windows the file can't be replaced or deleted meanwhile,
+ * so the next save would fail.
+ */
+final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x4d435331; // "MCS1"
+    /** Bump when the layout written by {@link SongStore#writeTo} changes. */
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8;
+
+    private final File file;
+
+    CatalogSnapshot() {
+        this(new File(System.getProperty("user.home"), ".musicstreaming" + File.separator + "catalog.snapshot"));
+    }
+
+    CatalogSnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Fill {@code store} from the snapshot and return its high-water mark
+     * (database time, epoch ms), or -1 if there's no usable snapshot.
+     */
+    long load(SongStore store) {
+        if (!file.isFile()) return -1;
+        ByteBuffer in;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                discard(store);
+                return -1;
+            }
+            in = ByteBuffer.allocate((int) size);
+            while (in.hasRemaining()) {
+                if (ch.read(in) < 0) break; // shorter than it said: the length check below rejects it
+            }
+            in.flip();
+        } catch (IOException e) {
+            discard(store);
+            return -1;
+        }
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT) {
+                discard(store);
+                return -1;
+            }
+            long highWater = in.getLong();
+            long bodyBytes = in.getLong();
+            if (HEADER_BYTES + bodyBytes != in.limit()) {
+                discard(store);
+                return -1;
+            }
+            store.readFrom(in);
+            return highWater;
+        } catch (RuntimeException e) {
+            discard(store);
+            return -1;
+        }
+    }
+
+    /** Write the store as current as of {@code highWater}; a failed write leaves the old snapshot in place. */
+    void save(SongStore store, long highWater) {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) return;
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw")) {
+                raf.setLength(0);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(raf.getFD()), 1 << 16));
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(highWater);
+                out.writeLong(0); // body length, filled in below
+                store.writeTo(out);
+                out.flush();
+                raf.seek(16);
+                raf.writeLong(raf.length() - HEADER_BYTES);
+            }
+            // readers only ever see the old snapshot or the new one, never neither
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // keep the old snapshot
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    void delete() {
+        file.delete();
+    }
+
+    private void discard(SongStore store) {
+        store.clear();
+        file.delete();
+    }
+}
@@ -0,0 +1,321 @@
+package catalog;
+
+import audio.AudioProbe;
+import audio.Id3Tag;
+import db.ArtistRepository;
+import db.ImportRepository;
+import model.Artist;
+import model.AudioInfo;
+import model.Song;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Imports every MP3 under a directory into the catalog.
+ *
+ * Tags are parsed (and, for a real import, files probed for duration) in
+ * parallel across the cores. Artists are matched by name case-insensitively
+ * and created when missing; rows are written {@link #CHUNK_SIZE} songs at a
+ * time, each chunk (artists, songs and audio info) one batched transaction. Art comes from the tag's embedded
+ * picture, else a cover image in the same folder. Files already in the
+ * catalog are skipped, so an import can be re-run after adding a few files.
+ *
+ * A dry run does all the reading and matching but writes nothing.
+ */
+public class DirectoryImport {
+
+    public interface Progress {
+        /** Called from worker threads while reading, then from the importing thread while writing. */
+        void update(String phase, int done, int total);
+    }
+
+    public static final int CHUNK_SIZE = 200;
+
+    private static final String UNKNOWN_ARTIST = "Unknown Artist";
+    private static final String[] COVER_NAMES = {"cover", "folder", "front", "album", "artwork"};
+    private static final String[] IMAGE_EXTENSIONS = {".jpg", ".jpeg", ".png"};
+
+    private static final ForkJoinPool READERS = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final File artDir;
+    private final ArtistRepository artists;
+    private final ImportRepository writer;
+
+    public DirectoryImport() {
+        this(new File(System.getProperty("user.home"), ".musicstreaming" + File.separator + "art"),
+                new ArtistRepository(), new ImportRepository());
+    }
+
+    DirectoryImport(File artDir, ArtistRepository artists, ImportRepository writer) {
+        this.artDir = artDir;
+        this.artists = artists;
+        this.writer = writer;
+    }
+
+    /** What an import did, or for a dry run would do. */
+    public static class Report {
+        public final boolean dryRun;
+        public final List<Song> songs = new ArrayList<>();          // imported / to import (ids set unless dry run)
+        public final List<String> newArtists = new ArrayList<>();
+        public final List<String> skipped = new ArrayList<>();      // already in the catalog
+        public final Map<String, String> failed = new LinkedHashMap<>(); // path -> reason
+        /** Every image the new rows point at, for thumbnail generation. */
+        public final Set<String> images = new LinkedHashSet<>();
+
+        Report(boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+
+        @Override
+        public String toString() {
+            return (dryRun ? "Would import " : "Imported ") + songs.size() + " songs, "
+                    + newArtists.size() + " new artists; " + skipped.size() + " already in catalog, "
+                    + failed.size() + " unreadable";
+        }
+    }
+
+    /** One file's parsed result; song is null if it couldn't be read. */
+    private static class Parsed {
+        final File file;
+        Song song;
+        AudioInfo info;
+        String error;
+
+        Parsed(File file) {
+            this.file = file;
+        }
+    }
+
+    public Report run(File root, boolean dryRun, Progress progress) throws IOException, SQLException {
+        Report report = new Report(dryRun);
+
+        Set<String> known = new HashSet<>();
+        for (Song s : SongCatalog.getInstance().getAll()) {
+            if (s.getAudioPath() != null) known.add(key(s.getAudioPath()));
+        }
+        List<File> files = new ArrayList<>();
+        for (File f : listMp3s(root)) {
+            if (known.contains(key(f.getAbsolutePath()))) report.skipped.add(f.getAbsolutePath());
+            else files.add(f);
+        }
+
+        List<Parsed> parsed = parseAll(files, !dryRun, progress);
+
+        // canonical name per folded name: existing rows win, then the first spelling seen
+        Map<String, String> canonical = new HashMap<>();
+        Map<String, Integer> artistIds = new HashMap<>();
+        for (Artist a : artists.findAll()) {
+            if (a.getName() == null) continue;
+            canonical.putIfAbsent(fold(a.getName()), a.getName());
+            artistIds.putIfAbsent(a.getName(), a.getId());
+        }
+
+        List<Parsed> ok = new ArrayList<>();
+        for (Parsed p : parsed) {
+            if (p.song == null) {
+                report.failed.put(p.file.getAbsolutePath(), p.error);
+                continue;
+            }
+            String name = canonical.computeIfAbsent(fold(p.song.getArtist()), k -> {
+                report.newArtists.add(p.song.getArtist());
+                return p.song.getArtist();
+            });
+            p.song = withArtist(p.song, name);
+            ok.add(p);
+        }
+
+        if (dryRun) {
+            for (Parsed p : ok) {
+                report.songs.add(p.song);
+                addImage(report, p.song.getImagePath());
+            }
+            return report;
+        }
+
+        Set<String> pendingArtists = new HashSet<>(report.newArtists);
+        int artistsToCreate = pendingArtists.size();
+        try {
+            writeChunks(ok, pendingArtists, artistIds, report, progress);
+        } finally {
+            // chunks that committed before a failure are real rows too
+            if (!report.songs.isEmpty()) SongCatalog.getInstance().invalidate();
+            // artists leave pendingArtists as their chunk commits; the artist grid must see them too
+            if (pendingArtists.size() < artistsToCreate) ArtistCatalog.getInstance().invalidate();
+        }
+        return report;
+    }
+
+    private void writeChunks(List<Parsed> ok, Set<String> pendingArtists, Map<String, Integer> artistIds,
+                             Report report, Progress progress) throws SQLException {
+        for (int from = 0; from < ok.size(); from += CHUNK_SIZE) {
+            List<Parsed> chunk = ok.subList(from, Math.min(ok.size(), from + CHUNK_SIZE));
+            // first song of a new artist lends it its cover
+            Map<String, String> newInChunk = new LinkedHashMap<>();
+            List<Song> songs = new ArrayList<>(chunk.size());
+            List<AudioInfo> audio = new ArrayList<>(chunk.size());
+            for (Parsed p : chunk) {
+                String artist = p.song.getArtist();
+                if (pendingArtists.contains(artist)) newInChunk.putIfAbsent(artist, p.song.getImagePath());
+                songs.add(p.song);
+                audio.add(p.info);
+            }
+
+            Map<String, Integer> created = new HashMap<>();
+            int[] ids = writer.insertChunk(newInChunk, artistIds, songs, audio, created);
+            artistIds.putAll(created);
+            pendingArtists.removeAll(created.keySet());
+
+            for (int i = 0; i < chunk.size(); i++) {
+                Song saved = withId(songs.get(i), ids[i], artistIds.getOrDefault(songs.get(i).getArtist(), 0));
+                report.songs.add(saved);
+                addImage(report, saved.getImagePath());
+            }
+            if (progress != null) progress.update("Saving", from + chunk.size(), ok.size());
+        }
+    }
+
+    // ===== READING =====
+
+    private static List<File> listMp3s(File root) throws IOException {
+        if (!root.isDirectory()) throw new IOException("Not a directory: " + root);
+        try (Stream<Path> paths = Files.walk(root.toPath())) {
+            return paths.filter(Files::isRegularFile)
+                    .map(Path::toFile)
+                    .filter(f -> f.getName().toLowerCase(Locale.ROOT).endsWith(".mp3"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<Parsed> parseAll(List<File> files, boolean probe, Progress progress) throws IOException {
+        AtomicInteger done = new AtomicInteger();
+        Map<File, String> covers = new HashMap<>();
+        for (File f : files) covers.computeIfAbsent(f.getParentFile(), DirectoryImport::findCover);
+        try {
+            // a parallel stream started inside a pool runs on that pool's workers
+            return READERS.submit(() -> files.parallelStream().map(f -> {
+                Parsed p = parse(f, covers.get(f.getParentFile()), probe);
+                if (progress != null) progress.update("Reading tags", done.incrementAndGet(), files.size());
+                return p;
+            }).collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Reading tags failed", e.getCause());
+        }
+    }
+
+    private Parsed parse(File file, String folderCover, boolean probe) {
+        Parsed p = new Parsed(file);
+        try {
+            Id3Tag tag = Id3Tag.read(file);
+            String title = tag.getTitle() != null ? tag.getTitle() : baseName(file);
+            String artist = tag.getArtist() != null ? tag.getArtist() : UNKNOWN_ARTIST;
+            String genre = tag.getGenre() != null ? tag.getGenre() : "";
+            String released = tag.getYear() != null ? tag.getYear() + "-01-01" : "";
+            // a dry run must not write, so it reports the folder cover instead of extracting
+            String image = tag.getArt() != null && probe ? saveArt(file, tag) : folderCover;
+            int duration = 0;
+            if (probe) {
+                p.info = AudioProbe.probe(0, file.getAbsolutePath());
+                if (p.info != null && p.info.getDurationMillis() >= 0) duration = p.info.getDurationSeconds();
+            }
+            p.song = new Song(0, title, artist, genre, duration, released, image, file.getAbsolutePath());
+        } catch (Exception e) {
+            p.error = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        return p;
+    }
+
+    /**
+     * Write embedded art out once, named by a digest of the file it came from
+     * (path and mtime), so songs can point at it and a re-import reuses it.
+     */
+    private String saveArt(File file, Id3Tag tag) throws IOException {
+        Files.createDirectories(artDir.toPath());
+        String name = sha1(file.getAbsolutePath() + "\0" + file.lastModified()) + "." + tag.getArtExtension();
+        File target = new File(artDir, name);
+        if (!target.isFile()) {
+            File tmp = new File(artDir, name + ".tmp" + Thread.currentThread().getId());
+            Files.write(tmp.toPath(), tag.getArt());
+            if (!tmp.renameTo(target)) {
+                tmp.delete();
+                if (!target.isFile()) throw new IOException("Could not write " + target);
+            }
+        }
+        return target.getAbsolutePath();
+    }
+
+    private static String sha1(String s) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** A conventionally named cover in {@code dir}, else its only image, else null. */
+    private static String findCover(File dir) {
+        File[] images = dir.listFiles(f -> f.isFile() && isImage(f.getName()));
+        if (images == null || images.length == 0) return null;
+        for (String base : COVER_NAMES) {
+            for (File f : images) {
+                if (baseName(f).equalsIgnoreCase(base)) return f.getAbsolutePath();
+            }
+        }
+        return images.length == 1 ? images[0].getAbsolutePath() : null;
+    }
+
+    private static boolean isImage(String name) {
+        String n = name.toLowerCase(Locale.ROOT);
+        for (String ext : IMAGE_EXTENSIONS) if (n.endsWith(ext)) return true;
+        return false;
+    }
+
+    // ===== HELPERS =====
+
+    private static void addImage(Report report, String image) {
+        if (image != null && new File(image).isFile()) report.images.add(image);
+    }
+
+    private static String baseName(File f) {
+        String n = f.getName();
+        int dot = n.lastIndexOf('.');
+        return dot > 0 ? n.substring(0, dot) : n;
+    }
+
+    private static String key(String path) {
+        return new File(path).getAbsolutePath().toLowerCase(Locale.ROOT);
+    }
+
+    private static String fold(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static Song withArtist(Song s, String artist) {
+        return new Song(s.getId(), s.getTitle(), artist, s.getGenre(), s.getDuration(),
+                s.getReleaseDate(), s.getImagePath(), s.getAudioPath());
+    }
+
+    private static Song withId(Song s, int id, int artistId) {
+        return new Song(id, s.getTitle(), s.getArtist(), s.getGenre(), s.getDuration(),
+                s.getReleaseDate(), s.getImagePath(), s.getAudioPath(), artistId);
+    }
+}
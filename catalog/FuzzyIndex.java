@@ -0,0 +1,349 @@
+package catalog;
+
+import model.Song;
+
+import java.util.*;
+
+/**
+ * Typo- and spelling-tolerant title lookup for romanized Hindi, where the
+ * same song is "Channa Mereya", "chana mereya" or "Tum Hi Ho" / "tumhi ho".
+ *
+ * Titles and queries are reduced to a phonetic key first: folded, spaces
+ * dropped, Hinglish spelling variants collapsed (aa/a, ee/i, oo/u, w/v, z/j,
+ * ph/f, aspirated kh/gh/th/dh/bh -> k/g/t/d/b, doubled letters) so most
+ * variants become identical. What's left is matched with bounded edit
+ * distance: trigrams of the key select candidates (a title within k edits
+ * of the query shares at least len - 2 - 3k of its trigrams), the best
+ * {@link #MAX_VERIFY} of those are checked with a bit-parallel (Myers)
+ * Levenshtein that lets the query match anywhere in the title, and results
+ * come back nearest first. Verification stops early once enough hits are in
+ * hand that no remaining candidate's overlap could beat.
+ *
+ * Not thread-safe for writes: {@link SongCatalog} calls it under its own lock.
+ */
+class FuzzyIndex {
+
+    /** Candidates verified per query, best trigram overlap first. */
+    static final int MAX_VERIFY = 4000;
+
+    private static final int MIN_KEY = 3;
+
+    // ===== DOCUMENTS =====
+    // doc numbers are assigned in insertion order; removed docs keep their number with a null key
+    private int[] docSong = new int[1024];
+    private String[] docKey = new String[1024];
+    private int docCount;
+    private int dead;
+    private final Map<Integer, Integer> docOf = new HashMap<>();
+
+    // trigram -> ascending doc numbers
+    private final Map<Long, IntList> grams = new HashMap<>();
+
+    // per-thread counting scratch, so concurrent readers don't share it
+    private final ThreadLocal<byte[]> scratch = ThreadLocal.withInitial(() -> new byte[0]);
+
+    void build(Collection<Song> songs) {
+        clear();
+        for (Song s : songs) add(s);
+    }
+
+    void clear() {
+        docSong = new int[1024];
+        docKey = new String[1024];
+        docCount = 0;
+        dead = 0;
+        docOf.clear();
+        grams.clear();
+    }
+
+    void add(Song song) {
+        remove(song.getId());
+        String key = key(song.getTitle());
+        if (docCount == docSong.length) {
+            docSong = Arrays.copyOf(docSong, docCount * 2);
+            docKey = Arrays.copyOf(docKey, docCount * 2);
+        }
+        int doc = docCount++;
+        docSong[doc] = song.getId();
+        docKey[doc] = key;
+        docOf.put(song.getId(), doc);
+        for (long g : grams(key)) grams.computeIfAbsent(g, x -> new IntList()).add(doc);
+    }
+
+    void remove(int id) {
+        Integer doc = docOf.remove(id);
+        if (doc == null) return;
+        docKey[doc] = null; // postings are skipped until the next compaction
+        if (++dead > 1024 && dead > (docCount - dead) / 4) compact();
+    }
+
+    /** Song ids whose titles are within a few edits of {@code query}, nearest first. */
+    List<Integer> search(String query, int limit) {
+        String key = key(query);
+        List<Integer> out = new ArrayList<>();
+        if (key.length() < MIN_KEY || limit <= 0) return out;
+        int k = maxEdits(key.length());
+        long[] qgrams = grams(key);
+        int maxCount = Math.min(qgrams.length, Byte.MAX_VALUE);
+        if (maxCount == 0) return out;
+        // the bound counts trigram occurrences but overlaps are counted over distinct trigrams,
+        // so a repetitive query ("la la la ...") can ask for more than any title can reach
+        int need = Math.min(maxCount, Math.max(1, (key.length() - 2) - 3 * k));
+
+        // shared-trigram count per doc; bytes keep the array small enough to stay in cache
+        byte[] counts = scratch.get();
+        if (counts.length < docCount) {
+            counts = new byte[Math.max(docCount, counts.length * 2)];
+            scratch.set(counts);
+        }
+        IntList touched = new IntList();
+        int[] ordered;
+        int[] overlap;
+        try {
+            for (long g : qgrams) {
+                IntList docs = grams.get(g);
+                if (docs == null) continue;
+                for (int i = 0; i < docs.size; i++) {
+                    int d = docs.data[i];
+                    byte c = counts[d];
+                    if (c == 0) touched.add(d);
+                    if (c < maxCount) counts[d] = (byte) (c + 1);
+                }
+            }
+
+            // counting sort of the candidates by overlap, best first
+            int[] histogram = new int[maxCount + 2];
+            for (int i = 0; i < touched.size; i++) {
+                int c = counts[touched.data[i]];
+                if (c >= need) histogram[c]++;
+            }
+            int[] next = new int[maxCount + 2];
+            for (int c = maxCount - 1; c >= 0; c--) next[c] = next[c + 1] + histogram[c + 1];
+            ordered = new int[next[need - 1]];
+            overlap = new int[ordered.length];
+            for (int i = 0; i < touched.size; i++) {
+                int d = touched.data[i];
+                int c = counts[d];
+                if (c >= need) {
+                    overlap[next[c]] = c;
+                    ordered[next[c]++] = d;
+                }
+            }
+        } finally {
+            // the scratch is per thread and reused: it must go back all zero, whatever happened
+            for (int i = 0; i < touched.size; i++) counts[touched.data[i]] = 0;
+        }
+
+        Matcher matcher = new Matcher(key);
+        List<long[]> hits = new ArrayList<>(); // {distance, length gap, song id}
+        int[] hitsWithin = new int[k + 1];     // hits at distance <= i
+        int verified = 0;
+        for (int i = 0; i < ordered.length && verified < MAX_VERIFY; i++) {
+            int d = ordered[i];
+            String title = docKey[d];
+            if (title == null) continue;
+            // a title sharing c trigrams is at least ceil((len - 2 - c) / 3) edits away, and
+            // overlap only falls from here on: stop once that many near-enough hits are in hand
+            int bound = (Math.max(0, key.length() - 2 - overlap[i]) + 2) / 3;
+            if (bound <= k && hitsWithin[bound] >= limit) break;
+            verified++;
+            int dist = matcher.distance(title, k);
+            if (dist <= k) {
+                hits.add(new long[]{dist, Math.abs(title.length() - key.length()), docSong[d]});
+                for (int e = dist; e <= k; e++) hitsWithin[e]++;
+            }
+        }
+        hits.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+                : a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[2], b[2]));
+        for (int i = 0; i < hits.size() && i < limit; i++) out.add((int) hits.get(i)[2]);
+        return out;
+    }
+
+    private void compact() {
+        int[] songs = new int[docCount - dead];
+        String[] keys = new String[songs.length];
+        int n = 0;
+        for (int d = 0; d < docCount; d++) {
+            if (docKey[d] == null) continue;
+            songs[n] = docSong[d];
+            keys[n] = docKey[d];
+            n++;
+        }
+        docSong = Arrays.copyOf(songs, Math.max(1024, n * 2));
+        docKey = Arrays.copyOf(keys, docSong.length);
+        docCount = n;
+        dead = 0;
+        docOf.clear();
+        grams.clear();
+        for (int d = 0; d < n; d++) {
+            docOf.put(docSong[d], d);
+            for (long g : grams(docKey[d])) grams.computeIfAbsent(g, x -> new IntList()).add(d);
+        }
+    }
+
+    // ===== MATCHING =====
+
+    /** Edits tolerated for a key of this length. */
+    static int maxEdits(int length) {
+        if (length <= 4) return 0;
+        if (length <= 7) return 1;
+        if (length <= 11) return 2;
+        return 3;
+    }
+
+    /**
+     * Fewest edits turning a query into some substring of a text (Myers'
+     * bit-vector algorithm, one machine word per text character), falling
+     * back to the plain dynamic program for queries over 64 characters.
+     */
+    static final class Matcher {
+        private final String query;
+        private final long[] ascii = new long[128];
+        private final Map<Character, Long> other = new HashMap<>();
+        private final long high;
+
+        Matcher(String query) {
+            this.query = query;
+            int m = Math.min(query.length(), 64);
+            for (int i = 0; i < m; i++) {
+                char c = query.charAt(i);
+                if (c < 128) ascii[c] |= 1L << i;
+                else other.merge(c, 1L << i, (a, b) -> a | b);
+            }
+            high = 1L << (m - 1);
+        }
+
+        /** Distance of the best match in {@code text}, or k + 1 if it is more than k. */
+        int distance(String text, int k) {
+            int m = query.length();
+            if (m > 64) return dynamic(text, k);
+            long pv = m == 64 ? -1L : (1L << m) - 1;
+            long mv = 0;
+            int score = m;
+            int best = m;
+            for (int j = 0; j < text.length(); j++) {
+                char c = text.charAt(j);
+                long eq = c < 128 ? ascii[c] : other.getOrDefault(c, 0L);
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                if ((ph & high) != 0) score++;
+                else if ((mh & high) != 0) score--;
+                // no carry-in: a match may start at any text position
+                ph <<= 1;
+                mh <<= 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+                if (score < best) best = score;
+            }
+            return Math.min(best, k + 1);
+        }
+
+        private int dynamic(String text, int k) {
+            int m = query.length();
+            int n = text.length();
+            int[] prev = new int[n + 1]; // row 0: the match may start anywhere
+            int[] cur = new int[n + 1];
+            for (int i = 1; i <= m; i++) {
+                cur[0] = i;
+                int rowMin = i;
+                char q = query.charAt(i - 1);
+                for (int j = 1; j <= n; j++) {
+                    int v = prev[j - 1] + (q == text.charAt(j - 1) ? 0 : 1);
+                    v = Math.min(v, prev[j] + 1);
+                    v = Math.min(v, cur[j - 1] + 1);
+                    cur[j] = v;
+                    if (v < rowMin) rowMin = v;
+                }
+                if (rowMin > k) return k + 1;
+                int[] t = prev;
+                prev = cur;
+                cur = t;
+            }
+            int best = k + 1;
+            for (int j = 0; j <= n; j++) best = Math.min(best, prev[j]);
+            return best;
+        }
+    }
+
+    private static long[] grams(String key) {
+        if (key.length() < 3) return new long[0];
+        LinkedHashSet<Long> set = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            set.add(((long) key.charAt(i) << 32) | ((long) key.charAt(i + 1) << 16) | key.charAt(i + 2));
+        }
+        long[] out = new long[set.size()];
+        int i = 0;
+        for (long g : set) out[i++] = g;
+        return out;
+    }
+
+    // ===== PHONETIC KEY =====
+
+    /** The spelling-insensitive form of a title or query; see the class comment. */
+    static String key(String s) {
+        String f = SearchIndex.fold(s).replace(" ", "");
+        StringBuilder sb = new StringBuilder(f.length());
+        for (int i = 0; i < f.length(); i++) {
+            char c = f.charAt(i);
+            char next = i + 1 < f.length() ? f.charAt(i + 1) : 0;
+            switch (c) {
+                case 'w': c = 'v'; break;
+                case 'z': c = 'j'; break;
+                case 'q': c = 'k'; break;
+                case 'x': sb.append('k'); c = 's'; break;
+                case 'p':
+                    if (next == 'h') { c = 'f'; i++; }
+                    break;
+                case 'c':
+                    if (next == 'k') { c = 'k'; i++; }
+                    else if (next != 'h') c = 'k';
+                    break;
+                case 'e':
+                    if (next == 'e') { c = 'i'; i++; }          // ee -> i
+                    else if (next == 'i') i++;                  // ei -> e
+                    break;
+                case 'o':
+                    if (next == 'o') { c = 'u'; i++; }          // oo -> u
+                    break;
+                case 'a':
+                    if (next == 'i' || next == 'e') { c = 'e'; i++; }  // ai / ae -> e
+                    else if (next == 'u') { c = 'o'; i++; }            // au -> o
+                    break;
+                case 'y':
+                    if (i + 1 == f.length()) c = 'i';           // pyaary -> pyaari
+                    break;
+                case 'i':
+                    if (next == 'a' && sb.length() > 0) c = 'y'; // kesaria -> kesarya
+                    break;
+                case 'h':
+                    // aspiration: kh gh ch jh th dh ph bh sh -> the plain consonant
+                    if (sb.length() > 0 && isConsonant(sb.charAt(sb.length() - 1))) continue;
+                    break;
+                default:
+                    break;
+            }
+            // iy -> y (piyar / pyar), and doubled letters collapse (channa / chana, pyaar / pyar)
+            if (c == 'y' && sb.length() > 0 && sb.charAt(sb.length() - 1) == 'i') sb.setLength(sb.length() - 1);
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) == c) continue;
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isConsonant(char c) {
+        return c >= 'a' && c <= 'z' && "aeiouy".indexOf(c) < 0;
+    }
+
+    /** Growable int array, to keep postings unboxed. */
+    private static final class IntList {
+        int[] data = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package catalog;
+
+import audio.AudioProbe;
+import db.AudioInfoRepository;
+import model.AudioInfo;
+import model.Song;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads duration, bitrate and sample rate from songs' audio files and stores
+ * them (song_audio_info, plus songs.duration) so nothing has to probe a file
+ * at play time.
+ *
+ * Probing is split fork/join style across a pool sized to the cores; probes
+ * stream back to the calling thread, which writes them in transactions of
+ * {@link #BATCH_SIZE} while the rest are still being read. Songs whose stored
+ * row still matches the file's length and mtime are skipped.
+ *
+ * Writes go through {@link SongCatalog#saveAudioInfo}, so cached songs pick
+ * up their probed durations in place.
+ */
+public class MetadataIngest {
+
+    public interface Progress {
+        /** Called on the ingesting thread after each song is probed. */
+        void update(int done, int total);
+    }
+
+    public static final int BATCH_SIZE = 100;
+
+    /** Below this many songs a task probes them itself instead of splitting. */
+    private static final int SPLIT_THRESHOLD = 8;
+
+    private static final ForkJoinPool PROBES = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final AudioInfoRepository repository;
+    private final SongCatalog catalog;
+
+    public MetadataIngest() {
+        this(new AudioInfoRepository(), SongCatalog.getInstance());
+    }
+
+    MetadataIngest(AudioInfoRepository repository, SongCatalog catalog) {
+        this.repository = repository;
+        this.catalog = catalog;
+    }
+
+    /** What one run did. */
+    public static class Summary {
+        public final int probed;
+        public final int upToDate;
+        public final int failed;
+
+        Summary(int probed, int upToDate, int failed) {
+            this.probed = probed;
+            this.upToDate = upToDate;
+            this.failed = failed;
+        }
+
+        @Override
+        public String toString() {
+            return probed + " updated, " + upToDate + " already up to date, " + failed + " unreadable";
+        }
+    }
+
+    /** Ingest every song whose file is new or changed since it was last probed. Blocks until done. */
+    public Summary run(List<Song> songs, Progress progress) throws SQLException {
+        Map<Integer, AudioInfo> stored = repository.findAll();
+        List<Song> todo = new ArrayList<>();
+        for (Song s : songs) {
+            if (s.getAudioPath() == null || s.getAudioPath().isEmpty()) continue;
+            if (!isCurrent(stored.get(s.getId()), new File(s.getAudioPath()))) todo.add(s);
+        }
+        int upToDate = songs.size() - todo.size();
+
+        BlockingQueue<Probe> results = new LinkedBlockingQueue<>();
+        ProbeTask root = new ProbeTask(todo, 0, todo.size(), results);
+        ForkJoinTask<Void> job = PROBES.submit(root);
+
+        List<AudioInfo> batch = new ArrayList<>(BATCH_SIZE);
+        int probed = 0;
+        int failed = 0;
+        try {
+            for (int done = 1; done <= todo.size(); done++) {
+                Probe p = results.take();
+                if (p.info != null) {
+                    batch.add(p.info);
+                    probed++;
+                } else {
+                    failed++;
+                }
+                if (batch.size() == BATCH_SIZE) {
+                    catalog.saveAudioInfo(batch);
+                    batch.clear();
+                }
+                if (progress != null) progress.update(done, todo.size());
+            }
+            catalog.saveAudioInfo(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            root.abandoned = true;
+            job.cancel(false);
+        }
+
+        return new Summary(probed, upToDate, failed);
+    }
+
+    /** Probe and store one song, e.g. right after an admin saves it. */
+    public AudioInfo ingest(Song song) throws Exception {
+        AudioInfo info = AudioProbe.probe(song.getId(), song.getAudioPath());
+        if (info != null) catalog.saveAudioInfo(List.of(info));
+        return info;
+    }
+
+    private static boolean isCurrent(AudioInfo info, File file) {
+        return info != null && info.getFileLength() == file.length() && info.getLastModified() == file.lastModified();
+    }
+
+    private static class Probe {
+        final AudioInfo info; // null if the file couldn't be read
+
+        Probe(AudioInfo info) {
+            this.info = info;
+        }
+    }
+
+    /** Probes songs[from, to), halving the range until it is small enough to do directly. */
+    private static class ProbeTask extends RecursiveAction {
+        private final List<Song> songs;
+        private final int from;
+        private final int to;
+        private final BlockingQueue<Probe> results;
+        // set by the root when the caller stops listening (e.g. a failed write)
+        volatile boolean abandoned;
+        private final ProbeTask root;
+
+        ProbeTask(List<Song> songs, int from, int to, BlockingQueue<Probe> results) {
+            this(songs, from, to, results, null);
+        }
+
+        private ProbeTask(List<Song> songs, int from, int to, BlockingQueue<Probe> results, ProbeTask root) {
+            this.songs = songs;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+            this.root = root == null ? this : root;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to && !root.abandoned; i++) {
+                    Song s = songs.get(i);
+                    AudioInfo info;
+                    try {
+                        info = AudioProbe.probe(s.getId(), s.getAudioPath());
+                    } catch (Exception e) {
+                        info = null;
+                    }
+                    results.add(new Probe(info));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ProbeTask(songs, from, mid, results, root), new ProbeTask(songs, mid, to, results, root));
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package catalog;
+
+import model.Song;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index from title / artist / genre words to song ids, answering
+ * search-as-you-type queries.
+ *
+ * Words are case- and diacritic-folded ("Café" matches "cafe") and every
+ * query word is a prefix ("ari sin" finds "Arijit Singh"). A song matches
+ * when each query word starts some word of its title, artist or genre.
+ *
+ * The bulk of the index is one immutable segment: a sorted term array with
+ * all postings packed into a single int[], so a prefix is a binary-searched
+ * term range and its posting count is a subtraction. Catalog edits go to a
+ * small mutable delta (new postings) plus a set of ids whose main-segment
+ * postings are stale; once the delta outgrows {@link #MERGE_THRESHOLD} the
+ * segment is rebuilt from the current songs. A query drives off its rarest
+ * word and checks the others against the candidate's folded text, stopping
+ * at the limit, so cost follows the result count rather than catalog size.
+ *
+ * Not thread-safe: {@link SongCatalog} calls it under its own lock.
+ */
+class SearchIndex {
+
+    /** Delta postings allowed before the main segment is rebuilt. */
+    static final int MERGE_THRESHOLD = 20_000;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // ===== MAIN SEGMENT =====
+    private String[] terms = new String[0];
+    // postings of terms[i] are postings[offsets[i] .. offsets[i + 1]), ascending ids
+    private int[] offsets = {0};
+    private int[] postings = new int[0];
+
+    // ===== DELTA =====
+    private final TreeMap<String, TreeSet<Integer>> delta = new TreeMap<>();
+    private int deltaPostings;
+    // ids whose main-segment postings no longer describe the song
+    private final Set<Integer> stale = new HashSet<>();
+
+    // " word word word " per song: verification text and source for rebuilds
+    private final Map<Integer, String> folded = new HashMap<>();
+
+    /** Replace the whole index with these songs. */
+    void build(Collection<Song> songs) {
+        folded.clear();
+        for (Song s : songs) folded.put(s.getId(), foldedText(s));
+        rebuild();
+    }
+
+    void add(Song song) {
+        String text = foldedText(song);
+        folded.put(song.getId(), text);
+        for (String term : words(text)) {
+            if (delta.computeIfAbsent(term, k -> new TreeSet<>()).add(song.getId())) deltaPostings++;
+        }
+        if (deltaPostings > MERGE_THRESHOLD) rebuild();
+    }
+
+    void remove(int id) {
+        String text = folded.remove(id);
+        if (text == null) return;
+        stale.add(id);
+        for (String term : words(text)) {
+            TreeSet<Integer> ids = delta.get(term);
+            if (ids != null && ids.remove(id)) {
+                deltaPostings--;
+                if (ids.isEmpty()) delta.remove(term);
+            }
+        }
+    }
+
+    void clear() {
+        folded.clear();
+        rebuild();
+    }
+
+    int size() {
+        return folded.size();
+    }
+
+    /**
+     * Ids of up to {@code limit} songs matching every word of {@code query}.
+     * Songs with a word equal to the rarest query word come before songs where
+     * it is only a prefix; otherwise results are in word, then id order.
+     */
+    List<Integer> search(String query, int limit) {
+        List<String> words = queryWords(query);
+        List<Integer> results = new ArrayList<>(Math.min(limit, 64));
+        if (words.isEmpty() || limit <= 0) return results;
+
+        // drive from the word with the fewest postings
+        String driver = words.get(0);
+        int best = Integer.MAX_VALUE;
+        for (String w : words) {
+            int n = countPrefix(w);
+            if (n < best) {
+                best = n;
+                driver = w;
+            }
+        }
+        if (best == 0) return results;
+        List<String> others = new ArrayList<>(words.size());
+        for (String w : words) {
+            if (!w.equals(driver)) others.add(" " + w);
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        int lo = lowerBound(driver);
+        int hi = upperBound(driver, lo);
+        for (int t = lo; t < hi; t++) {
+            for (int p = offsets[t]; p < offsets[t + 1]; p++) {
+                int id = postings[p];
+                if (stale.contains(id)) continue;
+                if (accept(id, others, seen, results) && results.size() == limit) return results;
+            }
+        }
+        for (TreeSet<Integer> ids : delta.subMap(driver, true, driver + Character.MAX_VALUE, false).values()) {
+            for (int id : ids) {
+                if (accept(id, others, seen, results) && results.size() == limit) return results;
+            }
+        }
+        return results;
+    }
+
+    /** others are the remaining query words, each with a leading space so they match word starts. */
+    private boolean accept(int id, List<String> others, Set<Integer> seen, List<Integer> results) {
+        if (!seen.add(id)) return false;
+        String text = folded.get(id);
+        if (text == null) return false;
+        for (String w : others) {
+            if (!text.contains(w)) return false;
+        }
+        results.add(id);
+        return true;
+    }
+
+    private int countPrefix(String prefix) {
+        int lo = lowerBound(prefix);
+        int n = offsets[upperBound(prefix, lo)] - offsets[lo];
+        for (TreeSet<Integer> ids : delta.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            n += ids.size();
+        }
+        return n;
+    }
+
+    /** First term >= prefix. */
+    private int lowerBound(String prefix) {
+        int i = Arrays.binarySearch(terms, prefix);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /** First term at or after {@code from} that doesn't start with prefix. */
+    private int upperBound(String prefix, int from) {
+        int lo = from;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].startsWith(prefix)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // ===== BUILD =====
+
+    /** Rebuild the main segment from {@link #folded}, packing postings without boxing them. */
+    private void rebuild() {
+        int[] ids = new int[folded.size()];
+        int k = 0;
+        for (int id : folded.keySet()) ids[k++] = id;
+        Arrays.sort(ids);
+
+        // (term number, song id) per posting, in ascending id order
+        Map<String, Integer> termNumbers = new HashMap<>();
+        List<String> termList = new ArrayList<>();
+        int[] pairTerm = new int[ids.length * 4 + 16];
+        int[] pairSong = new int[pairTerm.length];
+        int total = 0;
+        int[] lastSong = new int[1024]; // per term number: the song that last posted it, to skip repeats
+        for (int id : ids) {
+            String text = folded.get(id);
+            int start = 1;
+            while (start < text.length()) {
+                int end = text.indexOf(' ', start);
+                if (end < 0) break;
+                if (end == start) { // empty field
+                    start++;
+                    continue;
+                }
+                String term = text.substring(start, end);
+                start = end + 1;
+                Integer t = termNumbers.get(term);
+                if (t == null) {
+                    t = termList.size();
+                    termNumbers.put(term, t);
+                    termList.add(term);
+                    if (t == lastSong.length) lastSong = Arrays.copyOf(lastSong, t * 2);
+                    lastSong[t] = Integer.MIN_VALUE;
+                }
+                if (lastSong[t] == id) continue;
+                lastSong[t] = id;
+                if (total == pairTerm.length) {
+                    pairTerm = Arrays.copyOf(pairTerm, total * 2);
+                    pairSong = Arrays.copyOf(pairSong, total * 2);
+                }
+                pairTerm[total] = t;
+                pairSong[total] = id;
+                total++;
+            }
+        }
+
+        String[] sorted = termList.toArray(new String[0]);
+        Arrays.sort(sorted);
+        int[] rank = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) rank[termNumbers.get(sorted[i])] = i;
+
+        int[] offs = new int[sorted.length + 1];
+        for (int i = 0; i < total; i++) offs[rank[pairTerm[i]] + 1]++;
+        for (int i = 0; i < sorted.length; i++) offs[i + 1] += offs[i];
+        int[] fill = Arrays.copyOf(offs, sorted.length);
+        int[] post = new int[total];
+        for (int i = 0; i < total; i++) post[fill[rank[pairTerm[i]]]++] = pairSong[i];
+
+        terms = sorted;
+        offsets = offs;
+        postings = post;
+        delta.clear();
+        deltaPostings = 0;
+        stale.clear();
+    }
+
+    // ===== FOLDING =====
+
+    /** Lower-case, strip accents, collapse everything but letters and digits to single spaces. */
+    static String fold(String s) {
+        if (s == null || s.isEmpty()) return "";
+        String ascii = foldAscii(s);
+        if (ascii != null) return ascii;
+        String n = Normalizer.normalize(s, Normalizer.Form.NFD);
+        n = MARKS.matcher(n).replaceAll("");
+        return NON_WORD.matcher(n.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /** fold() without regexes for the common all-ASCII case; null if s has anything else. */
+    private static String foldAscii(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        boolean space = true; // suppresses leading and repeated separators
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) return null;
+            if (c >= 'A' && c <= 'Z') c += 'a' - 'A';
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') sb.setLength(end - 1);
+        return sb.toString();
+    }
+
+    private static String foldedText(Song s) {
+        return " " + fold(s.getTitle()) + " " + fold(s.getArtist()) + " " + fold(s.getGenre()) + " ";
+    }
+
+    /** Distinct words of an already folded text. */
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String w : text.split(" ")) {
+            if (!w.isEmpty()) words.add(w);
+        }
+        return words;
+    }
+
+    private static List<String> queryWords(String query) {
+        return new ArrayList<>(words(fold(query)));
+    }
+}
@@ -0,0 +1,497 @@
+package catalog;
+
+import db.AudioInfoRepository;
+import db.SongRepository;
+import model.AudioInfo;
+import model.Song;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Process-wide, read-through cache of the songs table.
+ *
+ * The first read loads the whole table once into a compact columnar
+ * {@link SongStore}; after that catalog reads are memory lookups by id,
+ * artist or genre, and {@link #search} answers
+ * free-text queries from a {@link SearchIndex} kept in step with the cache
+ * ({@link #find} adds misspelt-title matches from a {@link FuzzyIndex}). Admin writes go through
+ * {@link #add}, {@link #update} and {@link #delete}: the row is written to
+ * MySQL first and the cache is only changed once that succeeds, so a failed
+ * write never leaves the cache ahead of the database.
+ *
+ * Each full load is saved as a {@link CatalogSnapshot}. The next start
+ * reads that back and only asks MySQL for rows changed since it was taken
+ * (plus a deleted-row check), so {@link #preload} makes the catalog ready in
+ * a fraction of a full JDBC load. That needs the songs.updated_at column
+ * from sql/songs_updated_at.sql; without it every start is a full load and
+ * no snapshot is kept. The search indexes are derived from the
+ * store after loading, in the background, rather than on the load path.
+ */
+public class SongCatalog {
+
+    private static final SongCatalog INSTANCE =
+            new SongCatalog(new SongRepository(), new AudioInfoRepository(), new CatalogSnapshot());
+
+    /** Catch-up re-reads rows this far before the snapshot's mark, for writes committed late. */
+    static final long CATCH_UP_OVERLAP_MS = 60_000;
+
+    // snapshot writes and index pre-builds, off the UI and request threads
+    private static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-background");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private final SongRepository repository;
+    private final AudioInfoRepository audioInfo;
+    private final CatalogSnapshot snapshot;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes writers across DB write + cache update so both see the same order
+    private final Object writeMutex = new Object();
+
+    private final SongStore store = new SongStore();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final FuzzyIndex fuzzyIndex = new FuzzyIndex();
+    private volatile boolean loaded;
+    // searchIndex / fuzzyIndex describe the store; only changes under writeMutex
+    private volatile boolean indexed;
+    private boolean snapshotTried; // guarded by writeMutex
+    private long highWater;        // database time the store is complete up to; guarded by writeMutex
+    // bumped on every change, so views built from the catalog can tell they're stale
+    private volatile long version;
+
+    SongCatalog(SongRepository repository, AudioInfoRepository audioInfo, CatalogSnapshot snapshot) {
+        this.repository = repository;
+        this.audioInfo = audioInfo;
+        this.snapshot = snapshot;
+    }
+
+    public static SongCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Load the catalog and build its search indexes in the background, ahead
+     * of first use. Completes once both are ready.
+     */
+    public CompletableFuture<Void> preload() {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                ensureLoaded();
+                ensureIndexed();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                throw new CompletionException(e);
+            }
+        }, BACKGROUND);
+    }
+
+    // ===== READS =====
+
+    /** Every song, in id order. */
+    public List<Song> getAll() throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return store.all();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keyset page in id order. Served from memory once the catalog is loaded;
+     * before that it goes straight to MySQL rather than forcing a full load.
+     */
+    public List<Song> getPageAfter(int afterId, int limit) throws SQLException {
+        if (!loaded) return repository.findPageAfter(afterId, limit);
+        lock.readLock().lock();
+        try {
+            List<Song> page = new ArrayList<>(limit);
+            for (int row = store.rowAfter(afterId); row < store.size() && page.size() < limit; row++) {
+                page.add(store.song(row));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Song get(int id) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return store.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Song> getByArtist(String artist) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return store.withArtist(artist);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Song> getByGenre(String genre) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return store.withGenre(genre);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Songs linked to this artist row (songs.artist_id), in id order. */
+    public List<Song> getByArtistId(int artistId) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return store.withArtistId(artistId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Changes whenever the catalog does (writes, reloads, invalidation). */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Up to {@code limit} songs whose title, artist or genre words start with
+     * every word of {@code query}, ignoring case and accents.
+     */
+    public List<Song> search(String query, int limit) throws SQLException {
+        ensureLoaded();
+        ensureIndexed();
+        lock.readLock().lock();
+        try {
+            List<Integer> ids = searchIndex.search(query, limit);
+            List<Song> songs = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                Song s = store.get(id);
+                if (s != null) songs.add(s); // a reload can land between ensureIndexed and the lock
+            }
+            return songs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Up to {@code limit} songs whose titles are within a few edits of {@code query}, nearest first. */
+    public List<Song> searchFuzzy(String query, int limit) throws SQLException {
+        ensureLoaded();
+        ensureIndexed();
+        lock.readLock().lock();
+        try {
+            List<Integer> ids = fuzzyIndex.search(query, limit);
+            List<Song> songs = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                Song s = store.get(id);
+                if (s != null) songs.add(s); // a reload can land between ensureIndexed and the lock
+            }
+            return songs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * What a search box should show: {@link #search} matches first, then, if
+     * there's room, titles that only match {@link #searchFuzzy fuzzily}.
+     */
+    public List<Song> find(String query, int limit) throws SQLException {
+        List<Song> songs = search(query, limit);
+        if (songs.size() >= limit) return songs;
+        Set<Integer> have = new HashSet<>();
+        for (Song s : songs) have.add(s.getId());
+        for (Song s : searchFuzzy(query, limit)) {
+            if (songs.size() == limit) break;
+            if (have.add(s.getId())) songs.add(s);
+        }
+        return songs;
+    }
+
+    public int size() throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return store.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===== WRITE-THROUGH =====
+
+    /** Insert into the DB, then cache the row under its generated id. */
+    public Song add(Song song) throws SQLException {
+        synchronized (writeMutex) {
+            int id = repository.insert(song);
+            // re-read so the cache holds what MySQL resolved (artist_id), not just what was sent
+            Song saved = repository.findById(id);
+            if (saved == null) saved = withId(song, id);
+            if (loaded) {
+                lock.writeLock().lock();
+                try {
+                    put(saved);
+                    if (indexed) {
+                        searchIndex.add(saved);
+                        fuzzyIndex.add(saved);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            return saved;
+        }
+    }
+
+    public void update(Song song) throws SQLException {
+        synchronized (writeMutex) {
+            repository.update(song);
+            Song stored = repository.findById(song.getId());
+            Song cached = stored != null ? stored : song;
+            if (loaded) {
+                lock.writeLock().lock();
+                try {
+                    put(cached);
+                    if (indexed) {
+                        searchIndex.remove(cached.getId());
+                        searchIndex.add(cached);
+                        fuzzyIndex.add(cached);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    public void delete(int id) throws SQLException {
+        synchronized (writeMutex) {
+            repository.delete(id);
+            if (loaded) {
+                lock.writeLock().lock();
+                try {
+                    remove(id);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * A new artist row called {@code name} exists: link the songs credited to
+     * that name which had no artist row yet, in MySQL and in the cache.
+     */
+    public void linkArtist(int artistId, String name) throws SQLException {
+        synchronized (writeMutex) {
+            if (repository.linkArtist(artistId, name) == 0 || !loaded) return;
+            lock.writeLock().lock();
+            try {
+                if (store.linkArtist(name, artistId) > 0) version++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Store probed audio info (song_audio_info and songs.duration) in one
+     * transaction, then give the cached songs their probed durations.
+     */
+    public void saveAudioInfo(List<AudioInfo> infos) throws SQLException {
+        if (infos.isEmpty()) return;
+        synchronized (writeMutex) {
+            audioInfo.saveAll(infos);
+            if (!loaded) return;
+            lock.writeLock().lock();
+            try {
+                for (AudioInfo info : infos) {
+                    if (info.getDurationMillis() < 0) continue;
+                    Song cached = store.get(info.getSongId());
+                    // duration isn't indexed, so only the store row changes
+                    if (cached != null && cached.getDuration() != info.getDurationSeconds()) {
+                        put(withDuration(cached, info.getDurationSeconds()));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /** Mark the cache stale; the next read reloads it from MySQL. */
+    public void invalidate() {
+        synchronized (writeMutex) {
+            loaded = false;
+            version++;
+        }
+    }
+
+    // ===== INTERNALS =====
+
+    private void ensureLoaded() throws SQLException {
+        if (loaded) return;
+        synchronized (writeMutex) {
+            if (loaded) return;
+            // without songs.updated_at there's no catch-up query, so no snapshot either: every start is a full load
+            boolean tracked = repository.hasChangeTracking();
+            boolean fromSnapshot = false;
+            if (!snapshotTried) {
+                snapshotTried = true;
+                if (tracked) fromSnapshot = loadSnapshot();
+                else snapshot.delete();
+            }
+            if (!fromSnapshot) {
+                // before the read, so rows written during it are caught up next time
+                long mark = tracked ? repository.now() : -1;
+                List<Song> songs = repository.findAll();
+                lock.writeLock().lock();
+                try {
+                    store.load(songs);
+                    markLoaded();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                highWater = mark;
+            }
+            BACKGROUND.execute(this::ensureIndexed);
+            if (!fromSnapshot && tracked) saveSnapshot();
+        }
+    }
+
+    /**
+     * Fill the store from the snapshot, then apply what changed in MySQL
+     * since: rows updated after its high-water mark, and rows deleted (only
+     * looked for when the row count says there are any). False if there was
+     * no usable snapshot. Caller holds writeMutex.
+     */
+    private boolean loadSnapshot() throws SQLException {
+        long mark;
+        lock.writeLock().lock();
+        try {
+            mark = snapshot.load(store);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (mark < 0) return false;
+
+        long now = repository.now();
+        List<Song> changed = repository.findChangedSince(mark - CATCH_UP_OVERLAP_MS);
+        lock.writeLock().lock();
+        try {
+            for (Song s : changed) store.put(s);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // every row MySQL has is now in the store, so any surplus is a deleted song
+        int removed = 0;
+        if (repository.count() != store.size()) {
+            int[] ids = repository.findAllIds();
+            lock.writeLock().lock();
+            try {
+                removed = store.retainAll(ids);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            markLoaded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        highWater = now;
+        if (!changed.isEmpty() || removed > 0) saveSnapshot();
+        return true;
+    }
+
+    // caller holds the write lock; the indexes are rebuilt from the new store contents on demand
+    private void markLoaded() {
+        searchIndex.clear();
+        fuzzyIndex.clear();
+        indexed = false;
+        version++;
+        loaded = true;
+    }
+
+    /** Build the search indexes from the store if a load has left them empty. */
+    private void ensureIndexed() {
+        if (indexed) return;
+        synchronized (writeMutex) {
+            if (indexed || !loaded) return;
+            List<Song> songs;
+            lock.readLock().lock();
+            try {
+                songs = store.all();
+            } finally {
+                lock.readLock().unlock();
+            }
+            // nothing reads the indexes until indexed is set, and writers are held off by writeMutex
+            searchIndex.build(songs);
+            fuzzyIndex.build(songs);
+            indexed = true;
+        }
+    }
+
+    /**
+     * Save the store as of the current high-water mark, in the background.
+     * Only the copy is taken under the read lock; the file is written after
+     * releasing it, so writers don't wait on the disk. Caller holds writeMutex.
+     */
+    private void saveSnapshot() {
+        long mark = highWater;
+        BACKGROUND.execute(() -> {
+            SongStore copy;
+            lock.readLock().lock();
+            try {
+                if (!loaded) return;
+                copy = store.copy();
+            } finally {
+                lock.readLock().unlock();
+            }
+            snapshot.save(copy, mark);
+        });
+    }
+
+    // callers hold the write lock
+    private void put(Song song) {
+        version++;
+        store.put(song);
+    }
+
+    private void remove(int id) {
+        if (store.remove(id)) version++;
+        if (indexed) {
+            searchIndex.remove(id);
+            fuzzyIndex.remove(id);
+        }
+    }
+
+    private static Song withId(Song s, int id) {
+        return new Song(id, s.getTitle(), s.getArtist(), s.getGenre(), s.getDuration(),
+                s.getReleaseDate(), s.getImagePath(), s.getAudioPath(), s.getArtistId());
+    }
+
+    private static Song withDuration(Song s, int duration) {
+        return new Song(s.getId(), s.getTitle(), s.getArtist(), s.getGenre(), duration,
+                s.getReleaseDate(), s.getImagePath(), s.getAudioPath(), s.getArtistId());
+    }
+}
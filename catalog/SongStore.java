@@ -0,0 +1,456 @@
+package catalog;
+
+import model.Song;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Compact, column-per-field storage behind {@link SongCatalog}.
+ *
+ * Each song is one row across a handful of int[] columns, kept sorted by id
+ * so lookups and keyset pages are binary searches. Artist and genre are
+ * dictionary codes (a few thousand distinct names shared by a million rows),
+ * the release date is an epoch day, and each path is split into a
+ * dictionary-coded directory plus a file name. Titles and file names live
+ * length-prefixed in one UTF-8 byte heap, so a row costs no objects at all.
+ *
+ * Reads materialize a fresh {@link Song} from the row; artist, genre and
+ * directory strings come straight from the dictionaries and are shared by
+ * every song that uses them.
+ *
+ * The same arrays are what a {@link CatalogSnapshot} saves, so a snapshot is
+ * read back with bulk copies instead of one object per row.
+ *
+ * Not thread-safe: {@link SongCatalog} calls it under its own lock.
+ */
+final class SongStore {
+
+    /** Release date column value for songs without one. */
+    static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NONE = -1; // null string, missing dictionary code or heap entry
+
+    // ===== COLUMNS =====
+    private static final int ID = 0, TITLE = 1, ARTIST = 2, GENRE = 3, DURATION = 4, RELEASED = 5,
+            IMAGE_DIR = 6, IMAGE_NAME = 7, AUDIO_DIR = 8, AUDIO_NAME = 9, ARTIST_ID = 10;
+    private static final int COLUMNS = 11;
+
+    private final int[][] cols = new int[COLUMNS][0];
+    private int size;
+
+    private final Dictionary artists = new Dictionary();
+    private final Dictionary genres = new Dictionary();
+    private final Dictionary dirs = new Dictionary();
+    private TextHeap text = new TextHeap();
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        for (int c = 0; c < COLUMNS; c++) cols[c] = new int[0];
+        size = 0;
+        artists.clear();
+        genres.clear();
+        dirs.clear();
+        text = new TextHeap();
+    }
+
+    /** Replace the contents with these songs. */
+    void load(Collection<Song> songs) {
+        clear();
+        Song[] sorted = songs.toArray(new Song[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(Song::getId));
+        ensureCapacity(sorted.length);
+        for (Song s : sorted) {
+            if (size > 0 && cols[ID][size - 1] == s.getId()) write(size - 1, s); // duplicate id: last one wins
+            else write(size++, s);
+        }
+    }
+
+    /** Insert the song, or replace the row with its id. */
+    void put(Song song) {
+        int row = rowOf(song.getId());
+        if (row >= 0) {
+            release(row);
+            write(row, song);
+            compactIfWasteful();
+            return;
+        }
+        row = -row - 1;
+        ensureCapacity(size + 1);
+        for (int[] col : cols) System.arraycopy(col, row, col, row + 1, size - row);
+        size++;
+        write(row, song);
+    }
+
+    boolean remove(int id) {
+        int row = rowOf(id);
+        if (row < 0) return false;
+        release(row);
+        for (int[] col : cols) System.arraycopy(col, row + 1, col, row, size - row - 1);
+        size--;
+        compactIfWasteful();
+        return true;
+    }
+
+    /**
+     * Drop every row whose id isn't in {@code ids} (ascending), as after
+     * deletes the store didn't see. Returns how many rows went.
+     */
+    int retainAll(int[] ids) {
+        int kept = 0, i = 0;
+        int[] idCol = cols[ID];
+        for (int row = 0; row < size; row++) {
+            int id = idCol[row];
+            while (i < ids.length && ids[i] < id) i++;
+            if (i < ids.length && ids[i] == id) {
+                if (kept != row) for (int[] col : cols) col[kept] = col[row];
+                kept++;
+            } else {
+                release(row);
+            }
+        }
+        int removed = size - kept;
+        size = kept;
+        if (removed > 0) compactIfWasteful();
+        return removed;
+    }
+
+    // ===== READS =====
+
+    Song get(int id) {
+        int row = rowOf(id);
+        return row < 0 ? null : song(row);
+    }
+
+    /** The song in row {@code row} (0 .. size - 1, ascending ids). */
+    Song song(int row) {
+        int released = cols[RELEASED][row];
+        return new Song(cols[ID][row], text.get(cols[TITLE][row]),
+                artists.value(cols[ARTIST][row]), genres.value(cols[GENRE][row]), cols[DURATION][row],
+                released == NO_DATE ? "" : LocalDate.ofEpochDay(released).toString(),
+                path(cols[IMAGE_DIR][row], cols[IMAGE_NAME][row]),
+                path(cols[AUDIO_DIR][row], cols[AUDIO_NAME][row]), cols[ARTIST_ID][row]);
+    }
+
+    /** Row of the first song with an id greater than {@code id}; {@link #size()} if there is none. */
+    int rowAfter(int id) {
+        int row = rowOf(id);
+        return row >= 0 ? row + 1 : -row - 1;
+    }
+
+    List<Song> all() {
+        List<Song> songs = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) songs.add(song(row));
+        return songs;
+    }
+
+    /** Songs credited to {@code artist}, compared case-insensitively, in id order. */
+    List<Song> withArtist(String artist) {
+        return select(ARTIST, artists.codesMatching(artist));
+    }
+
+    /** Songs in {@code genre}, compared case-insensitively, in id order. */
+    List<Song> withGenre(String genre) {
+        return select(GENRE, genres.codesMatching(genre));
+    }
+
+    /** Songs linked to this artist row, in id order. */
+    List<Song> withArtistId(int artistId) {
+        List<Song> songs = new ArrayList<>();
+        int[] col = cols[ARTIST_ID];
+        for (int row = 0; row < size; row++) {
+            if (col[row] == artistId) songs.add(song(row));
+        }
+        return songs;
+    }
+
+    /** Give every unlinked song credited to {@code artist} this artist id; returns how many changed. */
+    int linkArtist(String artist, int artistId) {
+        BitSet codes = artists.codesMatching(artist);
+        int[] credited = cols[ARTIST], linked = cols[ARTIST_ID];
+        int changed = 0;
+        for (int row = 0; row < size; row++) {
+            int code = credited[row];
+            if (code != NONE && codes.get(code) && linked[row] == 0) {
+                linked[row] = artistId;
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private List<Song> select(int column, BitSet codes) {
+        List<Song> songs = new ArrayList<>();
+        if (codes.isEmpty()) return songs;
+        int[] col = cols[column];
+        for (int row = 0; row < size; row++) {
+            int code = col[row];
+            if (code != NONE && codes.get(code)) songs.add(song(row));
+        }
+        return songs;
+    }
+
+    // ===== SNAPSHOT =====
+
+    /**
+     * An independent copy of the contents, trimmed to size: bulk array
+     * copies, so it's quick enough to take under the catalog's lock and then
+     * write out after releasing it.
+     */
+    SongStore copy() {
+        SongStore c = new SongStore();
+        for (int col = 0; col < COLUMNS; col++) c.cols[col] = Arrays.copyOf(cols[col], size);
+        c.size = size;
+        c.artists.copyFrom(artists);
+        c.genres.copyFrom(genres);
+        c.dirs.copyFrom(dirs);
+        c.text.data = Arrays.copyOf(text.data, text.length);
+        c.text.length = text.length;
+        c.text.garbage = text.garbage;
+        return c;
+    }
+
+    /** Columns, dictionaries and text heap, in the layout {@link #readFrom} expects. */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(COLUMNS);
+        out.writeInt(size);
+        for (int[] col : cols) {
+            for (int row = 0; row < size; row++) out.writeInt(col[row]);
+        }
+        artists.writeTo(out);
+        genres.writeTo(out);
+        dirs.writeTo(out);
+        out.writeInt(text.length);
+        out.writeInt(text.garbage);
+        out.write(text.data, 0, text.length);
+    }
+
+    /** Replace the contents with what {@link #writeTo} produced; the buffer is left after the store. */
+    void readFrom(ByteBuffer in) {
+        clear();
+        if (in.getInt() != COLUMNS) throw new IllegalStateException("column layout changed");
+        int rows = in.getInt();
+        ensureCapacity(rows);
+        for (int[] col : cols) {
+            in.asIntBuffer().get(col, 0, rows);
+            in.position(in.position() + rows * Integer.BYTES);
+        }
+        artists.readFrom(in);
+        genres.readFrom(in);
+        dirs.readFrom(in);
+        int length = in.getInt();
+        text.garbage = in.getInt();
+        text.data = new byte[Math.max(length, 4096)];
+        in.get(text.data, 0, length);
+        text.length = length;
+        size = rows;
+    }
+
+    // ===== INTERNALS =====
+
+    /** Binary search of the id column: the row, or -(insertion point) - 1. */
+    private int rowOf(int id) {
+        return Arrays.binarySearch(cols[ID], 0, size, id);
+    }
+
+    private void write(int row, Song s) {
+        cols[ID][row] = s.getId();
+        cols[TITLE][row] = text.add(s.getTitle());
+        cols[ARTIST][row] = artists.code(s.getArtist());
+        cols[GENRE][row] = genres.code(s.getGenre());
+        cols[DURATION][row] = s.getDuration();
+        cols[RELEASED][row] = epochDay(s.getReleaseDate());
+        writePath(row, IMAGE_DIR, IMAGE_NAME, s.getImagePath());
+        writePath(row, AUDIO_DIR, AUDIO_NAME, s.getAudioPath());
+        cols[ARTIST_ID][row] = s.getArtistId();
+    }
+
+    /** Path compression: the directory part is shared through the dictionary, only the name is stored per row. */
+    private void writePath(int row, int dirCol, int nameCol, String path) {
+        if (path == null) {
+            cols[dirCol][row] = NONE;
+            cols[nameCol][row] = NONE;
+            return;
+        }
+        int cut = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1;
+        cols[dirCol][row] = dirs.code(path.substring(0, cut));
+        cols[nameCol][row] = text.add(path.substring(cut));
+    }
+
+    private String path(int dir, int name) {
+        if (dir == NONE) return null;
+        return dirs.value(dir) + text.get(name);
+    }
+
+    /** Mark a row's heap entries as garbage before it's overwritten or dropped. */
+    private void release(int row) {
+        text.free(cols[TITLE][row]);
+        text.free(cols[IMAGE_NAME][row]);
+        text.free(cols[AUDIO_NAME][row]);
+    }
+
+    /** Rewrite the text heap once edits have left more dead bytes than live ones. */
+    private void compactIfWasteful() {
+        if (text.garbage < 64 * 1024 || text.garbage < text.length - text.garbage) return;
+        TextHeap fresh = new TextHeap();
+        for (int c : new int[]{TITLE, IMAGE_NAME, AUDIO_NAME}) {
+            int[] col = cols[c];
+            for (int row = 0; row < size; row++) col[row] = fresh.add(text.get(col[row]));
+        }
+        text = fresh;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (cols[ID].length >= rows) return;
+        int capacity = Math.max(rows, cols[ID].length + (cols[ID].length >> 1) + 16);
+        for (int c = 0; c < COLUMNS; c++) cols[c] = Arrays.copyOf(cols[c], capacity);
+    }
+
+    private static int epochDay(String date) {
+        if (date == null || date.isEmpty()) return NO_DATE;
+        try {
+            return (int) LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return NO_DATE;
+        }
+    }
+
+    // ===== DICTIONARY =====
+
+    /** Distinct strings numbered in first-seen order; codes stay valid until {@link #clear()}. */
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int code(String value) {
+            if (value == null) return NONE;
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        String value(int code) {
+            return code == NONE ? null : values.get(code);
+        }
+
+        /** Codes of every value equal to {@code value} ignoring case and surrounding spaces. */
+        BitSet codesMatching(String value) {
+            String key = normalize(value);
+            BitSet matches = new BitSet();
+            for (int i = 0; i < values.size(); i++) {
+                String v = values.get(i);
+                if (v.length() >= key.length() && normalize(v).equals(key)) matches.set(i);
+            }
+            return matches;
+        }
+
+        void clear() {
+            values.clear();
+            codes.clear();
+        }
+
+        void copyFrom(Dictionary other) {
+            values.addAll(other.values);
+            codes.putAll(other.codes);
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(values.size());
+            for (String v : values) {
+                byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        void readFrom(ByteBuffer in) {
+            clear();
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                code(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+
+        private static String normalize(String s) {
+            return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // ===== TEXT HEAP =====
+
+    /** Append-only UTF-8 strings, each prefixed with its varint byte length. */
+    private static final class TextHeap {
+        private byte[] data = new byte[4096];
+        private int length;
+        private int garbage; // bytes of freed entries, reclaimed by compaction
+
+        int add(String s) {
+            if (s == null) return NONE;
+            byte[] bytes = isAscii(s) ? null : s.getBytes(StandardCharsets.UTF_8);
+            int n = bytes == null ? s.length() : bytes.length;
+            ensure(5 + n);
+            int start = length;
+            for (int v = n; ; v >>>= 7) {
+                if (v < 0x80) {
+                    data[length++] = (byte) v;
+                    break;
+                }
+                data[length++] = (byte) (v & 0x7F | 0x80);
+            }
+            if (bytes != null) {
+                System.arraycopy(bytes, 0, data, length, n);
+            } else {
+                for (int i = 0; i < n; i++) data[length + i] = (byte) s.charAt(i);
+            }
+            length += n;
+            return start;
+        }
+
+        String get(int at) {
+            if (at == NONE) return null;
+            int n = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[at++];
+                n |= (b & 0x7F) << shift;
+                if (b >= 0) break;
+            }
+            return new String(data, at, n, StandardCharsets.UTF_8);
+        }
+
+        void free(int at) {
+            if (at == NONE) return;
+            int start = at, n = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[at++];
+                n |= (b & 0x7F) << shift;
+                if (b >= 0) break;
+            }
+            garbage += at - start + n;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra <= data.length) return;
+            data = Arrays.copyOf(data, Math.max(length + extra, data.length + (data.length >> 1)));
+        }
+
+        private static boolean isAscii(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) >= 0x80) return false;
+            }
+            return true;
+        }
+    }
+}
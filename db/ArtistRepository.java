@@ -0,0 +1,95 @@
+package db;
+
+import model.Artist;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/** All SQL against the artist table. */
+public class ArtistRepository {
+
+    private static final String FIND_ALL = "SELECT Artist_ID, Name, Country, Image_Path FROM artist";
+    private static final String FIND_PAGE =
+            "SELECT Artist_ID, Name, Country, Image_Path FROM artist WHERE Artist_ID > ? ORDER BY Artist_ID LIMIT ?";
+    private static final String FIND_BY_ID = "SELECT Artist_ID, Name, Country, Image_Path FROM artist WHERE Artist_ID = ?";
+    private static final String INSERT = "INSERT INTO artist (Name, Country, Image_Path) VALUES (?, ?, ?)";
+    private static final String UPDATE = "UPDATE artist SET Name=?, Country=?, Image_Path=? WHERE Artist_ID=?";
+    private static final String DELETE = "DELETE FROM artist WHERE Artist_ID=?";
+
+    public List<Artist> findAll() throws SQLException {
+        List<Artist> artists = new ArrayList<>();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_ALL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) artists.add(map(rs));
+        }
+        return artists;
+    }
+
+    /** Keyset page: up to {@code limit} artists with id greater than {@code afterId}. */
+    public List<Artist> findPageAfter(int afterId, int limit) throws SQLException {
+        List<Artist> artists = new ArrayList<>();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_PAGE)) {
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) artists.add(map(rs));
+            }
+        }
+        return artists;
+    }
+
+    public Artist findById(int id) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_BY_ID)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        }
+    }
+
+    /** Insert an artist and return its generated id. */
+    public int insert(Artist artist) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, artist.getName());
+            ps.setString(2, artist.getCountry());
+            ps.setString(3, artist.getImagePath());
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                return keys.next() ? keys.getInt(1) : -1;
+            }
+        }
+    }
+
+    public void update(Artist artist) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(UPDATE)) {
+            ps.setString(1, artist.getName());
+            ps.setString(2, artist.getCountry());
+            ps.setString(3, artist.getImagePath());
+            ps.setInt(4, artist.getId());
+            ps.executeUpdate();
+        }
+    }
+
+    public void delete(int id) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(DELETE)) {
+            ps.setInt(1, id);
+            ps.executeUpdate();
+        }
+    }
+
+    private static Artist map(ResultSet rs) throws SQLException {
+        return new Artist(
+                rs.getInt("Artist_ID"),
+                rs.getString("Name"),
+                rs.getString("Country"),
+                rs.getString("Image_Path")
+        );
+    }
+}
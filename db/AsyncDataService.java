@@ -0,0 +1,128 @@
+package db;
+
+import javax.swing.SwingUtilities;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Runs repository calls off the Swing event dispatch thread and hands the
+ * result back on the EDT.
+ *
+ * Requests are keyed: submitting a new request under a key that still has one
+ * in flight cancels the older one, so e.g. clicking quickly through playlists
+ * only ever renders the last playlist clicked. Each panel owns its own
+ * instance; the worker threads are shared.
+ */
+public class AsyncDataService {
+
+    @FunctionalInterface
+    public interface Query<T> {
+        T run() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Command {
+        void run() throws Exception;
+    }
+
+    private static final ExecutorService WORKERS = createWorkers();
+
+    private final Map<String, Pending<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run a query in the background. The returned future completes on the EDT,
+     * or is cancelled if another request with the same key supersedes it.
+     */
+    public <T> CompletableFuture<T> submit(String key, Query<T> query) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                T value = query.run();
+                SwingUtilities.invokeLater(() -> result.complete(value));
+            } catch (Exception e) {
+                if (!Thread.currentThread().isInterrupted()) {
+                    SwingUtilities.invokeLater(() -> result.completeExceptionally(e));
+                }
+            }
+            return null;
+        });
+
+        Pending<T> pending = new Pending<>(task, result);
+        Pending<?> previous = inFlight.put(key, pending);
+        if (previous != null) previous.cancel();
+
+        result.whenComplete((v, e) -> {
+            inFlight.remove(key, pending);
+            if (result.isCancelled()) task.cancel(true);
+        });
+        WORKERS.execute(task);
+        return result;
+    }
+
+    /** Like {@link #submit(String, Query)} but with EDT callbacks; cancellation is silent. */
+    public <T> void submit(String key, Query<T> query, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        submit(key, query).whenComplete((value, error) -> {
+            if (error == null) {
+                onSuccess.accept(value);
+            } else if (!(error instanceof CancellationException)) {
+                onError.accept(error instanceof CompletionException ? error.getCause() : error);
+            }
+        });
+    }
+
+    /** Background write; never superseded or cancelled. Callbacks run on the EDT. */
+    public void execute(Command command, Runnable onDone, Consumer<Throwable> onError) {
+        WORKERS.execute(() -> {
+            try {
+                command.run();
+                SwingUtilities.invokeLater(onDone);
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> onError.accept(e));
+            }
+        });
+    }
+
+    /** Cancel a pending request, if any. */
+    public void cancel(String key) {
+        Pending<?> pending = inFlight.remove(key);
+        if (pending != null) pending.cancel();
+    }
+
+    /** Cancel everything this instance has in flight, e.g. when its panel is disposed. */
+    public void cancelAll() {
+        for (String key : inFlight.keySet()) cancel(key);
+    }
+
+    private static ExecutorService createWorkers() {
+        try {
+            // JDK 21+: a cheap virtual thread per request; the connection pool bounds real concurrency
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Older runtimes: small daemon pool, no point having more workers than pooled connections
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    DBConnection.POOL_MAX_SIZE, DBConnection.POOL_MAX_SIZE, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, "db-async-worker");
+                        t.setDaemon(true);
+                        return t;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    private static class Pending<T> {
+        final FutureTask<Void> task;
+        final CompletableFuture<T> result;
+
+        Pending(FutureTask<Void> task, CompletableFuture<T> result) {
+            this.task = task;
+            this.result = result;
+        }
+
+        void cancel() {
+            result.cancel(false);
+            task.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package db;
+
+import model.AudioInfo;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL against song_audio_info, the per-song facts read from the audio file
+ * at ingest. The table comes from sql/song_audio_info.sql; the app never
+ * creates it. Until it exists, reads find nothing and {@link #saveAll} only
+ * updates songs.duration. Rows for deleted songs are harmless and skipped by
+ * the join in {@link #findAll()}.
+ */
+public class AudioInfoRepository {
+
+    private static final String HAS_TABLE =
+            "SELECT COUNT(*) FROM information_schema.TABLES "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'song_audio_info'";
+    private static final String COLUMNS =
+            "a.song_id, a.duration_ms, a.bitrate_kbps, a.vbr, a.sample_rate, a.channels, a.file_length, a.file_mtime";
+
+    private static final String FIND_ALL =
+            "SELECT " + COLUMNS + " FROM song_audio_info a JOIN songs s ON s.id = a.song_id";
+    private static final String FIND_BY_SONG = "SELECT " + COLUMNS + " FROM song_audio_info a WHERE a.song_id = ?";
+    private static final String UPSERT =
+            "INSERT INTO song_audio_info (song_id, duration_ms, bitrate_kbps, vbr, sample_rate, channels, file_length, file_mtime) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE duration_ms=VALUES(duration_ms), bitrate_kbps=VALUES(bitrate_kbps), "
+                    + "vbr=VALUES(vbr), sample_rate=VALUES(sample_rate), channels=VALUES(channels), "
+                    + "file_length=VALUES(file_length), file_mtime=VALUES(file_mtime)";
+    private static final String UPDATE_DURATION = "UPDATE songs SET duration=? WHERE id=?";
+
+    private static volatile Boolean tableExists; // null until checked
+
+    /** Every stored row, by song id. */
+    public Map<Integer, AudioInfo> findAll() throws SQLException {
+        Map<Integer, AudioInfo> infos = new HashMap<>();
+        if (!hasTable()) return infos;
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_ALL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                AudioInfo info = map(rs);
+                infos.put(info.getSongId(), info);
+            }
+        }
+        return infos;
+    }
+
+    public AudioInfo findBySongId(int songId) throws SQLException {
+        if (!hasTable()) return null;
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_BY_SONG)) {
+            ps.setInt(1, songId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Store a batch of rows and copy their durations into songs.duration, as
+     * one transaction: either the whole batch lands or none of it does.
+     */
+    public void saveAll(List<AudioInfo> infos) throws SQLException {
+        if (infos.isEmpty()) return;
+        boolean storeRows = hasTable();
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                write(con, infos, storeRows);
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * The statements behind {@link #saveAll}, on the caller's connection and
+     * inside its transaction (the importer writes them with the songs they describe).
+     */
+    static void write(Connection con, List<AudioInfo> infos, boolean storeRows) throws SQLException {
+        if (infos.isEmpty()) return;
+        try (PreparedStatement upsert = storeRows ? con.prepareStatement(UPSERT) : null;
+             PreparedStatement duration = con.prepareStatement(UPDATE_DURATION)) {
+            for (AudioInfo info : infos) {
+                if (upsert != null) {
+                    upsert.setInt(1, info.getSongId());
+                    upsert.setLong(2, info.getDurationMillis());
+                    upsert.setInt(3, info.getBitrateKbps());
+                    upsert.setBoolean(4, info.isVariableBitrate());
+                    upsert.setInt(5, info.getSampleRate());
+                    upsert.setInt(6, info.getChannels());
+                    upsert.setLong(7, info.getFileLength());
+                    upsert.setLong(8, info.getLastModified());
+                    upsert.addBatch();
+                }
+                if (info.getDurationMillis() >= 0) {
+                    duration.setInt(1, info.getDurationSeconds());
+                    duration.setInt(2, info.getSongId());
+                    duration.addBatch();
+                }
+            }
+            if (upsert != null) upsert.executeBatch();
+            duration.executeBatch();
+        }
+    }
+
+    /** Whether sql/song_audio_info.sql has been run. Checked once per run. */
+    public boolean hasTable() throws SQLException {
+        Boolean exists = tableExists;
+        if (exists != null) return exists;
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(HAS_TABLE);
+             ResultSet rs = ps.executeQuery()) {
+            exists = rs.next() && rs.getInt(1) > 0;
+        }
+        tableExists = exists;
+        return exists;
+    }
+
+    // ===== MAPPING =====
+
+    private static AudioInfo map(ResultSet rs) throws SQLException {
+        return new AudioInfo(
+                rs.getInt("song_id"),
+                rs.getLong("duration_ms"),
+                rs.getInt("bitrate_kbps"),
+                rs.getBoolean("vbr"),
+                rs.getInt("sample_rate"),
+                rs.getInt("channels"),
+                rs.getLong("file_length"),
+                rs.getLong("file_mtime")
+        );
+    }
+}
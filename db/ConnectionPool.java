@@ -0,0 +1,282 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Small bounded JDBC connection pool used behind {@link DBConnection#getConnection()}.
+ *
+ * Callers keep using try-with-resources exactly as before: the Connection they get
+ * is a proxy whose close() hands the physical connection back to the pool instead
+ * of tearing down the TCP session. Statements opened through the proxy are closed
+ * on return so a forgotten PreparedStatement doesn't pile up on a reused connection.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long leakThresholdMs;
+
+    /** Connections idle for less than this are handed out without a round-trip check. */
+    private static final long VALIDATION_BYPASS_MS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    // LIFO: recently used connections are reused first, cold ones age out at the tail
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> inUse = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password,
+                          int minSize, int maxSize,
+                          long borrowTimeoutMs, long idleTimeoutMs, long leakThresholdMs) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.leakThresholdMs = leakThresholdMs;
+        this.permits = new Semaphore(maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        // first run warms the pool up to minSize in the background
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, 0, 15, TimeUnit.SECONDS);
+    }
+
+    // ===== BORROW / RETURN =====
+
+    /** Borrow a connection, waiting up to the borrow timeout if all are in use. */
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + borrowTimeoutMs + " ms waiting for a database connection ("
+                                + inUse.size() + "/" + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pc;
+            while ((pc = idle.pollFirst()) != null) {
+                if (isUsable(pc)) break;
+                discard(pc);
+            }
+            if (pc == null) pc = new PooledConnection(openPhysical());
+
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrowTrace = new Throwable("Connection borrowed here");
+            pc.leakReported = false;
+            inUse.add(pc);
+            return pc.newLease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void giveBack(PooledConnection pc) {
+        if (!inUse.remove(pc)) return;
+        try {
+            pc.closeOpenStatements();
+            boolean healthy = !pc.raw.isClosed();
+            if (healthy && !pc.raw.getAutoCommit()) {
+                pc.raw.rollback();
+                pc.raw.setAutoCommit(true);
+            }
+            if (healthy && !closed) {
+                pc.lastUsed = System.currentTimeMillis();
+                pc.borrowTrace = null;
+                idle.offerFirst(pc);
+            } else {
+                discard(pc);
+            }
+        } catch (SQLException e) {
+            discard(pc);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        try {
+            if (pc.raw.isClosed()) return false;
+            if (System.currentTimeMillis() - pc.lastUsed < VALIDATION_BYPASS_MS) return true;
+            return pc.raw.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    private void discard(PooledConnection pc) {
+        try {
+            pc.raw.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    // ===== HOUSEKEEPING =====
+
+    private void houseKeep() {
+        if (closed) return;
+        long now = System.currentTimeMillis();
+
+        // evict connections that sat idle too long, but never drop below minSize
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && idle.size() + inUse.size() > minSize) {
+            PooledConnection pc = it.next();
+            if (now - pc.lastUsed > idleTimeoutMs && idle.removeLastOccurrence(pc)) {
+                discard(pc);
+            }
+        }
+
+        // top back up to minSize
+        while (!closed && idle.size() + inUse.size() < minSize) {
+            try {
+                PooledConnection pc = new PooledConnection(openPhysical());
+                pc.lastUsed = now;
+                idle.offerLast(pc);
+            } catch (SQLException e) {
+                System.err.println("Connection pool: could not open connection: " + e.getMessage());
+                break;
+            }
+        }
+
+        // leak detection: report each overdue borrow once, with where it was taken
+        for (PooledConnection pc : inUse) {
+            Throwable trace = pc.borrowTrace;
+            if (!pc.leakReported && trace != null && now - pc.borrowedAt > leakThresholdMs) {
+                pc.leakReported = true;
+                System.err.println("Connection pool: possible leak, connection held for "
+                        + (now - pc.borrowedAt) + " ms");
+                trace.printStackTrace();
+            }
+        }
+    }
+
+    /** Close every idle connection and refuse new borrows; in-use ones close on return. */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) discard(pc);
+    }
+
+    public int getIdleCount() { return idle.size(); }
+    public int getActiveCount() { return inUse.size(); }
+    public int getMaxSize() { return maxSize; }
+
+    // ===== POOLED CONNECTION =====
+
+    private class PooledConnection {
+        final Connection raw;
+        final List<Statement> openStatements = new ArrayList<>();
+        volatile long lastUsed;
+        volatile long borrowedAt;
+        volatile Throwable borrowTrace;
+        volatile boolean leakReported;
+
+        PooledConnection(Connection raw) {
+            this.raw = raw;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        Connection newLease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Lease(this));
+        }
+
+        synchronized void track(Statement st) {
+            openStatements.add(st);
+        }
+
+        synchronized void closeOpenStatements() {
+            for (Statement st : openStatements) {
+                try {
+                    st.close();
+                } catch (SQLException ignored) {
+                }
+            }
+            openStatements.clear();
+        }
+    }
+
+    /** One borrow of a pooled connection; becomes unusable once closed. */
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean returned;
+
+        Lease(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (returned) return null;
+                        returned = true;
+                    }
+                    giveBack(pc);
+                    return null;
+                case "isClosed":
+                    synchronized (this) {
+                        if (returned) return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pc.raw;
+                default:
+                    synchronized (this) {
+                        if (returned) throw new SQLException("Connection has already been returned to the pool");
+                    }
+            }
+
+            try {
+                Object result = method.invoke(pc.raw, args);
+                if (result instanceof Statement) pc.track((Statement) result);
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package db;
+
+import model.AudioInfo;
+import model.Song;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk writes for the directory importer: one chunk of new artists, the
+ * songs that reference them and those songs' audio info, as a single
+ * batched transaction.
+ */
+public class ImportRepository {
+
+    private final AudioInfoRepository audioInfo = new AudioInfoRepository();
+
+    private static final String INSERT_ARTIST = "INSERT INTO artist (Name, Country, Image_Path) VALUES (?, ?, ?)";
+    private static final String INSERT_SONG =
+            "INSERT INTO songs (title, artist, artist_id, genre, duration, release_date, image_path, audio_path) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Insert {@code newArtists}, then {@code songs}, then their audio info, all or nothing.
+     *
+     * @param newArtists   names of artists to create, with the image to give each (may be null)
+     * @param artistIds    existing artists by name; songs look their artist up here first
+     * @param audio        probe results in the order of {@code songs} (null where a file wasn't probed);
+     *                     their song ids are replaced by the generated ones
+     * @param createdOut   filled with the ids of the artists created, only once the chunk has committed
+     * @return the generated song ids, in the order of {@code songs}
+     */
+    public int[] insertChunk(Map<String, String> newArtists, Map<String, Integer> artistIds,
+                             List<Song> songs, List<AudioInfo> audio, Map<String, Integer> createdOut)
+            throws SQLException {
+        boolean storeAudioRows = audioInfo.hasTable();
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                Map<String, Integer> created = insertArtists(con, newArtists);
+                int[] ids = insertSongs(con, songs, artistIds, created);
+                AudioInfoRepository.write(con, withSongIds(audio, ids), storeAudioRows);
+                con.commit();
+                createdOut.putAll(created);
+                return ids;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static Map<String, Integer> insertArtists(Connection con, Map<String, String> artists) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        if (artists.isEmpty()) return ids;
+        List<String> names = new ArrayList<>(artists.keySet());
+        try (PreparedStatement ps = con.prepareStatement(INSERT_ARTIST, Statement.RETURN_GENERATED_KEYS)) {
+            for (String name : names) {
+                ps.setString(1, name);
+                ps.setString(2, null);
+                ps.setString(3, artists.get(name));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (String name : names) {
+                    if (!keys.next()) throw new SQLException("No generated key for artist " + name);
+                    ids.put(name, keys.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static List<AudioInfo> withSongIds(List<AudioInfo> audio, int[] ids) {
+        List<AudioInfo> infos = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            AudioInfo a = audio.get(i);
+            if (a == null) continue;
+            infos.add(new AudioInfo(ids[i], a.getDurationMillis(), a.getBitrateKbps(), a.isVariableBitrate(),
+                    a.getSampleRate(), a.getChannels(), a.getFileLength(), a.getLastModified()));
+        }
+        return infos;
+    }
+
+    private static int[] insertSongs(Connection con, List<Song> songs, Map<String, Integer> existing,
+                                     Map<String, Integer> created) throws SQLException {
+        int[] ids = new int[songs.size()];
+        if (songs.isEmpty()) return ids;
+        try (PreparedStatement ps = con.prepareStatement(INSERT_SONG, Statement.RETURN_GENERATED_KEYS)) {
+            for (Song s : songs) {
+                Integer artistId = existing.get(s.getArtist());
+                if (artistId == null) artistId = created.get(s.getArtist());
+                ps.setString(1, s.getTitle());
+                ps.setString(2, s.getArtist());
+                if (artistId != null) ps.setInt(3, artistId); else ps.setNull(3, Types.INTEGER);
+                ps.setString(4, s.getGenre());
+                ps.setInt(5, s.getDuration());
+                ps.setString(6, s.getReleaseDate() == null || s.getReleaseDate().isEmpty() ? null : s.getReleaseDate());
+                ps.setString(7, s.getImagePath());
+                ps.setString(8, s.getAudioPath());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length; i++) {
+                    if (!keys.next()) throw new SQLException("No generated key for song " + songs.get(i));
+                    ids[i] = keys.getInt(1);
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,17 @@
+package db;
+
+import java.util.List;
+
+/**
+ * Keyset ("seek method") page fetch: the next {@code limit} rows whose key is
+ * strictly greater than {@code afterKey}, in key order. Unlike OFFSET paging
+ * the cost of a page doesn't grow with how far the user has scrolled.
+ */
+@FunctionalInterface
+public interface PageSource<T> {
+
+    /** Key to pass for the first page. */
+    int FIRST = Integer.MIN_VALUE;
+
+    List<T> fetchAfter(int afterKey, int limit) throws Exception;
+}
@@ -0,0 +1,97 @@
+package db;
+
+import model.Playlist;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/** All SQL against the playlist and playlist_songs tables. */
+public class PlaylistRepository {
+
+    private static final String FIND_BY_USER =
+            "SELECT Playlist_ID, User_ID, Playlist_Name FROM playlist WHERE User_ID=?";
+    private static final String FIND_BY_NAME =
+            "SELECT Playlist_ID, User_ID, Playlist_Name FROM playlist WHERE User_ID=? AND Playlist_Name=?";
+    private static final String INSERT =
+            "INSERT INTO playlist(User_ID, Playlist_Name, Created_Date) VALUES (?, ?, CURDATE())";
+    private static final String RENAME = "UPDATE playlist SET Playlist_Name=? WHERE Playlist_ID=?";
+    private static final String DELETE = "DELETE FROM playlist WHERE Playlist_ID=?";
+    private static final String ADD_SONG = "INSERT INTO playlist_songs(Playlist_ID, Song_ID) VALUES (?, ?)";
+    private static final String REMOVE_SONG = "DELETE FROM playlist_songs WHERE Playlist_ID=? AND Song_ID=?";
+
+    public List<Playlist> findByUser(int userId) throws SQLException {
+        List<Playlist> playlists = new ArrayList<>();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_BY_USER)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) playlists.add(map(rs));
+            }
+        }
+        return playlists;
+    }
+
+    public Playlist findByName(int userId, String name) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_BY_NAME)) {
+            ps.setInt(1, userId);
+            ps.setString(2, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        }
+    }
+
+    public void create(int userId, String name) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(INSERT)) {
+            ps.setInt(1, userId);
+            ps.setString(2, name);
+            ps.executeUpdate();
+        }
+    }
+
+    public void rename(int playlistId, String newName) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(RENAME)) {
+            ps.setString(1, newName);
+            ps.setInt(2, playlistId);
+            ps.executeUpdate();
+        }
+    }
+
+    public void delete(int playlistId) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(DELETE)) {
+            ps.setInt(1, playlistId);
+            ps.executeUpdate();
+        }
+    }
+
+    public void addSong(int playlistId, int songId) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(ADD_SONG)) {
+            ps.setInt(1, playlistId);
+            ps.setInt(2, songId);
+            ps.executeUpdate();
+        }
+    }
+
+    public void removeSong(int playlistId, int songId) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(REMOVE_SONG)) {
+            ps.setInt(1, playlistId);
+            ps.setInt(2, songId);
+            ps.executeUpdate();
+        }
+    }
+
+    private static Playlist map(ResultSet rs) throws SQLException {
+        return new Playlist(
+                rs.getInt("Playlist_ID"),
+                rs.getInt("User_ID"),
+                rs.getString("Playlist_Name")
+        );
+    }
+}
@@ -0,0 +1,251 @@
+package db;
+
+import model.Song;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All SQL against the songs table. SQL strings are constants so every call
+ * hits the same entry in the connection's prepared-statement cache.
+ */
+public class SongRepository {
+
+    private static final String COLUMNS =
+            "s.id, s.title, s.artist, s.genre, s.duration, s.release_date, s.image_path, s.audio_path, s.artist_id";
+
+    private static final String FIND_ALL = "SELECT " + COLUMNS + " FROM songs s";
+    private static final String FIND_PAGE =
+            "SELECT " + COLUMNS + " FROM songs s WHERE s.id > ? ORDER BY s.id LIMIT ?";
+    private static final String FIND_BY_ID = "SELECT " + COLUMNS + " FROM songs s WHERE s.id = ?";
+    private static final String FIND_BY_TITLE = "SELECT " + COLUMNS + " FROM songs s WHERE s.title = ?";
+    private static final String FIND_BY_ARTIST = "SELECT " + COLUMNS + " FROM songs s WHERE s.artist_id = ?";
+    private static final String FIND_BY_PLAYLIST =
+            "SELECT " + COLUMNS + " FROM songs s JOIN playlist_songs ps ON s.id = ps.Song_ID WHERE ps.Playlist_ID = ?";
+    // artist_id is resolved from the artist name, so songs typed into the admin form link to their artist row;
+    // a name with no artist row unlinks the song (NULL) rather than leaving it under its old artist
+    private static final String ARTIST_ID = "(SELECT a.Artist_ID FROM artist a WHERE a.Name = ? LIMIT 1)";
+    private static final String INSERT =
+            "INSERT INTO songs (title, artist, genre, duration, release_date, image_path, audio_path, artist_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, " + ARTIST_ID + ")";
+    private static final String UPDATE =
+            "UPDATE songs SET title=?, artist=?, genre=?, duration=?, release_date=?, image_path=?, audio_path=?, "
+                    + "artist_id=" + ARTIST_ID + " WHERE id=?";
+    private static final String DELETE = "DELETE FROM songs WHERE id=?";
+    private static final String LINK_ARTIST = "UPDATE songs SET artist_id=? WHERE artist_id IS NULL AND artist=?";
+
+    // change tracking for catalog catch-up; songs.updated_at comes from sql/songs_updated_at.sql
+    private static final String HAS_UPDATED_AT =
+            "SELECT COUNT(*) FROM information_schema.COLUMNS "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'songs' AND COLUMN_NAME = 'updated_at'";
+    private static final String NOW = "SELECT CURRENT_TIMESTAMP(3)";
+    private static final String FIND_CHANGED = "SELECT " + COLUMNS + " FROM songs s WHERE s.updated_at >= ?";
+    private static final String COUNT = "SELECT COUNT(*) FROM songs";
+    private static final String FIND_IDS = "SELECT id FROM songs ORDER BY id";
+
+    private static volatile Boolean changeTracked; // null until checked
+
+    public List<Song> findAll() throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_ALL)) {
+            return readAll(ps);
+        }
+    }
+
+    /** Keyset page: up to {@code limit} songs with id greater than {@code afterId}. */
+    public List<Song> findPageAfter(int afterId, int limit) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_PAGE)) {
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit);
+            return readAll(ps);
+        }
+    }
+
+    public Song findById(int id) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_BY_ID)) {
+            ps.setInt(1, id);
+            return readOne(ps);
+        }
+    }
+
+    /** First song with exactly this title, or null. */
+    public Song findByTitle(String title) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_BY_TITLE)) {
+            ps.setString(1, title);
+            return readOne(ps);
+        }
+    }
+
+    public List<Song> findByArtistId(int artistId) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_BY_ARTIST)) {
+            ps.setInt(1, artistId);
+            return readAll(ps);
+        }
+    }
+
+    public List<Song> findByPlaylist(int playlistId) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_BY_PLAYLIST)) {
+            ps.setInt(1, playlistId);
+            return readAll(ps);
+        }
+    }
+
+    /** Insert a song and return its generated id. */
+    public int insert(Song song) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            bind(ps, song);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                return keys.next() ? keys.getInt(1) : -1;
+            }
+        }
+    }
+
+    public void update(Song song) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(UPDATE)) {
+            bind(ps, song);
+            ps.setInt(9, song.getId());
+            ps.executeUpdate();
+        }
+    }
+
+    public void delete(int id) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(DELETE)) {
+            ps.setInt(1, id);
+            ps.executeUpdate();
+        }
+    }
+
+    /** Link songs credited to {@code name} that have no artist row yet to {@code artistId}. */
+    public int linkArtist(int artistId, String name) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(LINK_ARTIST)) {
+            ps.setInt(1, artistId);
+            ps.setString(2, name);
+            return ps.executeUpdate();
+        }
+    }
+
+    // ===== CHANGE TRACKING =====
+
+    /**
+     * The database clock (epoch ms). Taken before a full read, it's the
+     * high-water mark later passed to {@link #findChangedSince}.
+     */
+    public long now() throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(NOW);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1).getTime();
+        }
+    }
+
+    /**
+     * Songs inserted or updated at or after {@code since} (epoch ms, database
+     * time). Only valid when {@link #hasChangeTracking()}.
+     */
+    public List<Song> findChangedSince(long since) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_CHANGED)) {
+            ps.setTimestamp(1, new Timestamp(since));
+            return readAll(ps);
+        }
+    }
+
+    public int count() throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(COUNT);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /** Every song id, ascending. */
+    public int[] findAllIds() throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_IDS);
+             ResultSet rs = ps.executeQuery()) {
+            int[] ids = new int[1024];
+            int n = 0;
+            while (rs.next()) {
+                if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+                ids[n++] = rs.getInt(1);
+            }
+            return Arrays.copyOf(ids, n);
+        }
+    }
+
+    /**
+     * Whether songs has the updated_at column from sql/songs_updated_at.sql,
+     * which {@link #findChangedSince} needs. Checked once per run; the app
+     * never adds it itself.
+     */
+    public boolean hasChangeTracking() throws SQLException {
+        Boolean tracked = changeTracked;
+        if (tracked != null) return tracked;
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(HAS_UPDATED_AT);
+             ResultSet rs = ps.executeQuery()) {
+            tracked = rs.next() && rs.getInt(1) > 0;
+        }
+        changeTracked = tracked;
+        return tracked;
+    }
+
+    // ===== MAPPING =====
+
+    private void bind(PreparedStatement ps, Song song) throws SQLException {
+        ps.setString(1, song.getTitle());
+        ps.setString(2, song.getArtist());
+        ps.setString(3, song.getGenre());
+        ps.setInt(4, song.getDuration());
+        ps.setString(5, emptyToNull(song.getReleaseDate()));
+        ps.setString(6, song.getImagePath());
+        ps.setString(7, song.getAudioPath());
+        ps.setString(8, song.getArtist());
+    }
+
+    private List<Song> readAll(PreparedStatement ps) throws SQLException {
+        List<Song> songs = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) songs.add(map(rs));
+        }
+        return songs;
+    }
+
+    private Song readOne(PreparedStatement ps) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? map(rs) : null;
+        }
+    }
+
+    static Song map(ResultSet rs) throws SQLException {
+        Date releaseDate = rs.getDate("release_date");
+        return new Song(
+                rs.getInt("id"),
+                rs.getString("title"),
+                rs.getString("artist"),
+                rs.getString("genre"),
+                rs.getInt("duration"),
+                releaseDate != null ? releaseDate.toString() : "",
+                rs.getString("image_path"),
+                rs.getString("audio_path"),
+                rs.getInt("artist_id")
+        );
+    }
+
+    private static String emptyToNull(String s) {
+        return s == null || s.trim().isEmpty() ? null : s;
+    }
+}
@@ -0,0 +1,127 @@
+package db;
+
+import model.Admin;
+import model.User;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/** All SQL against the user and admin tables. */
+public class UserRepository {
+
+    private static final String USER_COLUMNS = "User_ID, Full_Name, Email, Date_of_Birth, Country";
+
+    private static final String FIND_ALL = "SELECT " + USER_COLUMNS + " FROM `user`";
+    private static final String FIND_PAGE =
+            "SELECT " + USER_COLUMNS + " FROM `user` WHERE User_ID > ? ORDER BY User_ID LIMIT ?";
+    private static final String LOGIN = "SELECT " + USER_COLUMNS + " FROM `user` WHERE Email=? AND Password=?";
+    private static final String EMAIL_EXISTS = "SELECT 1 FROM `user` WHERE Email=?";
+    private static final String INSERT =
+            "INSERT INTO `user` (Full_Name, Email, Password, Date_of_Birth, Country) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE =
+            "UPDATE `user` SET Full_Name=?, Email=?, Date_of_Birth=?, Country=? WHERE User_ID=?";
+    private static final String DELETE = "DELETE FROM `user` WHERE User_ID=?";
+    private static final String ADMIN_LOGIN = "SELECT * FROM admin WHERE Email=? AND Password=?";
+
+    public List<User> findAll() throws SQLException {
+        List<User> users = new ArrayList<>();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_ALL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) users.add(map(rs));
+        }
+        return users;
+    }
+
+    /** Keyset page: up to {@code limit} users with id greater than {@code afterId}. */
+    public List<User> findPageAfter(int afterId, int limit) throws SQLException {
+        List<User> users = new ArrayList<>();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_PAGE)) {
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) users.add(map(rs));
+            }
+        }
+        return users;
+    }
+
+    /** The user with these credentials, or null. */
+    public User authenticate(String email, String password) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(LOGIN)) {
+            ps.setString(1, email);
+            ps.setString(2, password);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        }
+    }
+
+    /** The admin with these credentials, or null. */
+    public Admin authenticateAdmin(String email, String password) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(ADMIN_LOGIN)) {
+            ps.setString(1, email);
+            ps.setString(2, password);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                return new Admin(rs.getInt(1), rs.getString("Name"), rs.getString("Email"), null);
+            }
+        }
+    }
+
+    public boolean emailExists(String email) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(EMAIL_EXISTS)) {
+            ps.setString(1, email);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    public void register(String fullName, String email, String password, String dob, String country) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(INSERT)) {
+            ps.setString(1, fullName);
+            ps.setString(2, email);
+            ps.setString(3, password);
+            ps.setString(4, dob);
+            ps.setString(5, country);
+            ps.executeUpdate();
+        }
+    }
+
+    public void update(User user) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(UPDATE)) {
+            ps.setString(1, user.getFullName());
+            ps.setString(2, user.getEmail());
+            ps.setString(3, user.getDateOfBirth());
+            ps.setString(4, user.getCountry());
+            ps.setInt(5, user.getId());
+            ps.executeUpdate();
+        }
+    }
+
+    public void delete(int userId) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(DELETE)) {
+            ps.setInt(1, userId);
+            ps.executeUpdate();
+        }
+    }
+
+    private static User map(ResultSet rs) throws SQLException {
+        return new User(
+                rs.getInt("User_ID"),
+                rs.getString("Full_Name"),
+                rs.getString("Email"),
+                rs.getString("Date_of_Birth"),
+                rs.getString("Country")
+        );
+    }
+}
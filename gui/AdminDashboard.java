@@ -1,40 +1,48 @@
 package gui;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.filechooser.FileNameExtensionFilter;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
-import java.net.URL;
-import java.sql.*;
-import db.DBConnection;
-import javafx.embed.swing.JFXPanel;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
+import audio.AudioProbe;
+import audio.PlaybackEngine;
+import catalog.ArtistCatalog;
+import catalog.DirectoryImport;
+import catalog.MetadataIngest;
+import catalog.SongCatalog;
+import db.ArtistRepository;
+import db.AsyncDataService;
+import db.UserRepository;
+import model.Artist;
+import model.Song;
+import model.User;
 
 /**
  * Modern dark-themed AdminDashboard with file browsing for images & audio,
- * image preview, and simple JavaFX-based audio playback.
- *
- * NOTE: JavaFX runtime must be available on classpath (OpenJFX). The code
- * initializes JavaFX via new JFXPanel().
+ * image preview, and audio preview through the shared PlaybackEngine.
  */
 public class AdminDashboard extends JFrame {
 
     private final String emojiFont;
     private JTable userTable, songTable, artistTable;
-    private DefaultTableModel userModel, songModel, artistModel;
+    private PagedTableModel<User> userModel;
+    private PagedTableModel<Song> songModel;
+    private PagedTableModel<Artist> artistModel;
 
-    // JavaFX audio player (single shared player)
-    private MediaPlayer fxPlayer;
-    private final JFXPanel jfxPanel; // ensures JavaFX runtime initialized
+    private final UserRepository userRepository = new UserRepository();
+    private final SongCatalog songCatalog = SongCatalog.getInstance();
+    private final MetadataIngest metadataIngest = new MetadataIngest();
+    private final DirectoryImport directoryImport = new DirectoryImport();
+    private final ArtistRepository artistRepository = new ArtistRepository();
+    private final ArtistCatalog artistCatalog = ArtistCatalog.getInstance();
+    private final AsyncDataService async = new AsyncDataService();
+
+    // shared with the rest of the app, so a preview replaces whatever was playing
+    private final PlaybackEngine player = PlaybackEngine.getInstance();
 
     public AdminDashboard() {
-        // init JavaFX runtime for audio
-        jfxPanel = new JFXPanel(); // creates JavaFX runtime
         emojiFont = detectEmojiFont();
 
         setTitle("👑 Admin Dashboard");
@@ -86,6 +94,8 @@ public class AdminDashboard extends JFrame {
 
         JButton refreshAll = createStyledButton("🔄 Refresh All", new Color(60, 160, 230));
         refreshAll.addActionListener(e -> {
+            songCatalog.invalidate();
+            artistCatalog.invalidate();
             loadUsers();
             loadSongs();
             loadArtists();
@@ -111,13 +121,20 @@ public class AdminDashboard extends JFrame {
     private JPanel createUserPanel() {
         JPanel panel = createBasePanel();
         String[] cols = {"User_ID", "Full_Name", "Email", "Date_of_Birth", "Country"};
-        userModel = new DefaultTableModel(cols, 0) {
-            public boolean isCellEditable(int row, int col) { return false; }
-        };
+        userModel = new PagedTableModel<>(cols, userRepository::findPageAfter, User::getId, u -> new Object[]{
+                u.getId(),
+                u.getFullName(),
+                u.getEmail(),
+                u.getDateOfBirth(),
+                u.getCountry()
+        });
+        userModel.setOnError(e -> showError("Error loading users", e));
         userTable = new JTable(userModel);
         styleTable(userTable);
 
-        panel.add(new JScrollPane(userTable), BorderLayout.CENTER);
+        JScrollPane scroll = new JScrollPane(userTable);
+        userModel.attachTo(scroll);
+        panel.add(scroll, BorderLayout.CENTER);
 
         JPanel btnRow = new JPanel(new FlowLayout(FlowLayout.LEFT));
         btnRow.setOpaque(false);
@@ -134,22 +151,7 @@ public class AdminDashboard extends JFrame {
     }
 
     private void loadUsers() {
-        userModel.setRowCount(0);
-        try (Connection con = DBConnection.getConnection();
-             Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery("SELECT * FROM user")) {
-            while (rs.next()) {
-                userModel.addRow(new Object[]{
-                        rs.getInt("User_ID"),
-                        rs.getString("Full_Name"),
-                        rs.getString("Email"),
-                        rs.getString("Date_of_Birth"),
-                        rs.getString("Country")
-                });
-            }
-        } catch (Exception e) {
-            showError("Error loading users", e);
-        }
+        userModel.reload();
     }
 
     private void addUser() {
@@ -162,19 +164,10 @@ public class AdminDashboard extends JFrame {
         Object[] fields = {"Full Name:", name, "Email:", email, "Password:", password, "Date of Birth:", dob, "Country:", country};
         int opt = JOptionPane.showConfirmDialog(this, fields, "Add User", JOptionPane.OK_CANCEL_OPTION);
         if (opt == JOptionPane.OK_OPTION) {
-            try (Connection con = DBConnection.getConnection();
-                 PreparedStatement ps = con.prepareStatement("INSERT INTO user (Full_Name, Email, Password, Date_of_Birth, Country) VALUES (?, ?, ?, ?, ?)")) {
-                ps.setString(1, name.getText());
-                ps.setString(2, email.getText());
-                ps.setString(3, password.getText());
-                ps.setString(4, dob.getText());
-                ps.setString(5, country.getText());
-                ps.executeUpdate();
+            async.execute(() -> userRepository.register(name.getText(), email.getText(), password.getText(), dob.getText(), country.getText()), () -> {
                 showInfo("User added");
                 loadUsers();
-            } catch (Exception ex) {
-                showError("Error adding user", ex);
-            }
+            }, ex -> showError("Error adding user", ex));
         }
     }
 
@@ -191,19 +184,11 @@ public class AdminDashboard extends JFrame {
         Object[] fields = {"Full Name:", name, "Email:", email, "Date of Birth:", dob, "Country:", country};
         int opt = JOptionPane.showConfirmDialog(this, fields, "Edit User", JOptionPane.OK_CANCEL_OPTION);
         if (opt == JOptionPane.OK_OPTION) {
-            try (Connection con = DBConnection.getConnection();
-                 PreparedStatement ps = con.prepareStatement("UPDATE user SET Full_Name=?, Email=?, Date_of_Birth=?, Country=? WHERE User_ID=?")) {
-                ps.setString(1, name.getText());
-                ps.setString(2, email.getText());
-                ps.setString(3, dob.getText());
-                ps.setString(4, country.getText());
-                ps.setInt(5, id);
-                ps.executeUpdate();
+            User updated = new User(id, name.getText(), email.getText(), dob.getText(), country.getText());
+            async.execute(() -> userRepository.update(updated), () -> {
                 showInfo("User updated");
                 loadUsers();
-            } catch (Exception ex) {
-                showError("Error updating user", ex);
-            }
+            }, ex -> showError("Error updating user", ex));
         }
     }
 
@@ -213,15 +198,10 @@ public class AdminDashboard extends JFrame {
         int id = (int) userModel.getValueAt(row, 0);
         int confirm = JOptionPane.showConfirmDialog(this, "Delete this user?", "Confirm", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            try (Connection con = DBConnection.getConnection();
-                 PreparedStatement ps = con.prepareStatement("DELETE FROM user WHERE User_ID=?")) {
-                ps.setInt(1, id);
-                ps.executeUpdate();
+            async.execute(() -> userRepository.delete(id), () -> {
                 showInfo("User deleted");
                 loadUsers();
-            } catch (Exception ex) {
-                showError("Error deleting user", ex);
-            }
+            }, ex -> showError("Error deleting user", ex));
         }
     }
 
@@ -229,13 +209,23 @@ public class AdminDashboard extends JFrame {
     private JPanel createSongPanel() {
         JPanel panel = createBasePanel();
         String[] cols = {"ID", "Title", "Artist", "Genre", "Duration(s)", "Release_Date", "Image_Path", "Audio_Path"};
-        songModel = new DefaultTableModel(cols, 0) {
-            public boolean isCellEditable(int r, int c) { return false; }
-        };
+        songModel = new PagedTableModel<>(cols, songCatalog::getPageAfter, Song::getId, s -> new Object[]{
+                s.getId(),
+                s.getTitle(),
+                s.getArtist(),
+                s.getGenre(),
+                s.getDuration(),
+                s.getReleaseDate(),
+                s.getImagePath(),
+                s.getAudioPath()
+        });
+        songModel.setOnError(e -> showError("Error loading songs", e));
         songTable = new JTable(songModel);
         styleTable(songTable);
 
-        panel.add(new JScrollPane(songTable), BorderLayout.CENTER);
+        JScrollPane scroll = new JScrollPane(songTable);
+        songModel.attachTo(scroll);
+        panel.add(scroll, BorderLayout.CENTER);
 
         JPanel btnRow = new JPanel(new FlowLayout(FlowLayout.LEFT));
         btnRow.setOpaque(false);
@@ -244,33 +234,117 @@ public class AdminDashboard extends JFrame {
         btnRow.add(createStyledButton("➕ Add Song", new Color(60, 180, 140), e -> openSongDialog(null)));
         btnRow.add(createStyledButton("✏️ Edit Song", new Color(60, 140, 220), e -> editSongAction()));
         btnRow.add(createStyledButton("🗑 Delete Song", new Color(200, 80, 80), e -> deleteSong()));
-        btnRow.add(createStyledButton("🔄 Refresh", new Color(130, 130, 130), e -> loadSongs()));
+        btnRow.add(createStyledButton("🔄 Refresh", new Color(130, 130, 130), e -> {
+            songCatalog.invalidate();
+            loadSongs();
+        }));
+
+        JProgressBar scanProgress = new JProgressBar();
+        scanProgress.setStringPainted(true);
+        scanProgress.setVisible(false);
+        JButton scanAudio = createStyledButton("🎚 Scan Audio Info", new Color(150, 110, 200), null);
+        scanAudio.addActionListener(e -> scanAudioInfo(scanAudio, scanProgress));
+        JButton importFolder = createStyledButton("📁 Import Folder", new Color(200, 140, 60), null);
+        importFolder.addActionListener(e -> importFolder(importFolder, scanProgress));
+        btnRow.add(scanAudio);
+        btnRow.add(importFolder);
+        btnRow.add(scanProgress);
 
         panel.add(btnRow, BorderLayout.SOUTH);
         loadSongs();
         return panel;
     }
 
-    private void loadSongs() {
-        songModel.setRowCount(0);
-        try (Connection con = DBConnection.getConnection();
-             Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery("SELECT * FROM songs")) {
-            while (rs.next()) {
-                songModel.addRow(new Object[]{
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("artist"),
-                        rs.getString("genre"),
-                        rs.getInt("duration"),
-                        rs.getString("release_date"),
-                        rs.getString("image_path"),
-                        rs.getString("audio_path")
-                });
+    /** Read duration / bitrate / sample rate from every new or changed audio file and store them. */
+    private void scanAudioInfo(JButton button, JProgressBar progress) {
+        button.setEnabled(false);
+        progress.setValue(0);
+        progress.setString("Scanning...");
+        progress.setVisible(true);
+        ProgressRelay relay = new ProgressRelay(progress);
+        async.submit("scanAudio", () -> metadataIngest.run(songCatalog.getAll(), (done, total) ->
+                relay.update(done + " / " + total, done, total)), summary -> {
+            button.setEnabled(true);
+            progress.setVisible(false);
+            showInfo("Audio info: " + summary);
+            loadSongs();
+        }, ex -> {
+            button.setEnabled(true);
+            progress.setVisible(false);
+            showError("Error scanning audio files", ex);
+        });
+    }
+
+    /** Bulk-add every MP3 under a folder, optionally as a dry run that only reports what it would add. */
+    private void importFolder(JButton button, JProgressBar progress) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Choose a music folder");
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File root = chooser.getSelectedFile();
+
+        Object[] modes = {"Import", "Dry Run", "Cancel"};
+        int mode = JOptionPane.showOptionDialog(this, "Import all MP3s under\n" + root.getAbsolutePath() + "?",
+                "Import Folder", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, modes, modes[1]);
+        if (mode != 0 && mode != 1) return;
+        boolean dryRun = mode == 1;
+
+        button.setEnabled(false);
+        progress.setValue(0);
+        progress.setString("Scanning folder...");
+        progress.setVisible(true);
+        ProgressRelay relay = new ProgressRelay(progress);
+        async.submit("importFolder", () -> {
+            DirectoryImport.Report report = directoryImport.run(root, dryRun, (phase, done, total) ->
+                    relay.update(phase + " " + done + " / " + total, done, total));
+            if (!dryRun) {
+                SwingUtilities.invokeLater(() -> progress.setString("Generating thumbnails..."));
+                ThumbnailStore.getInstance().generateAll(report.images);
             }
-        } catch (Exception e) {
-            showError("Error loading songs", e);
+            return report;
+        }, report -> {
+            button.setEnabled(true);
+            progress.setVisible(false);
+            showImportReport(report);
+            if (!report.dryRun) {
+                loadSongs();
+                loadArtists(); // the import may have created artists
+            }
+        }, ex -> {
+            button.setEnabled(true);
+            progress.setVisible(false);
+            showError("Error importing folder", ex);
+            // chunks saved before the failure are committed
+            loadSongs();
+            loadArtists();
+        });
+    }
+
+    private void showImportReport(DirectoryImport.Report report) {
+        StringBuilder sb = new StringBuilder(report.toString()).append("\n");
+        if (!report.newArtists.isEmpty()) {
+            sb.append("\nNew artists:\n");
+            for (String a : report.newArtists) sb.append("  ").append(a).append("\n");
+        }
+        sb.append(report.dryRun ? "\nWould add:\n" : "\nAdded:\n");
+        for (Song s : report.songs) {
+            sb.append("  ").append(s.getArtist()).append(" - ").append(s.getTitle());
+            if (!s.getGenre().isEmpty()) sb.append(" [").append(s.getGenre()).append("]");
+            sb.append("\n");
+        }
+        if (!report.failed.isEmpty()) {
+            sb.append("\nUnreadable:\n");
+            report.failed.forEach((path, why) -> sb.append("  ").append(path).append(": ").append(why).append("\n"));
         }
+        JTextArea text = new JTextArea(sb.toString(), 20, 60);
+        text.setEditable(false);
+        text.setCaretPosition(0);
+        JOptionPane.showMessageDialog(this, new JScrollPane(text),
+                report.dryRun ? "Import Preview" : "Import Complete", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void loadSongs() {
+        songModel.reload();
     }
 
     private void openSongDialog(Integer editSongId) {
@@ -308,6 +382,8 @@ public class AdminDashboard extends JFrame {
             File f = chooseFile(dialog, new String[]{"png", "jpg", "jpeg"}, "Image Files");
             if (f != null) {
                 imagePathF.setText(f.getAbsolutePath());
+                // the file may have been replaced on disk since it was last cached
+                ImageCache.getInstance().invalidate(f.getAbsolutePath());
                 imagePreview.setIcon(loadScaledIcon(f.getAbsolutePath(), 140, 140));
             }
         });
@@ -317,6 +393,12 @@ public class AdminDashboard extends JFrame {
             File f = chooseFile(dialog, new String[]{"mp3", "wav", "aac", "m4a"}, "Audio Files");
             if (f != null) {
                 audioPathF.setText(f.getAbsolutePath());
+                // duration comes from the file rather than being typed in
+                async.submit("probeAudio", () -> AudioProbe.probe(0, f.getAbsolutePath()), info -> {
+                    if (info != null && info.getDurationMillis() >= 0) {
+                        durationF.setText(String.valueOf(info.getDurationSeconds()));
+                    }
+                }, ex -> { /* unreadable: keep whatever was typed */ });
             }
         });
 
@@ -373,26 +455,20 @@ public class AdminDashboard extends JFrame {
 
         // if editing, populate fields
         if (editSongId != null) {
-            try (Connection con = DBConnection.getConnection();
-                 PreparedStatement ps = con.prepareStatement("SELECT * FROM songs WHERE id = ?")) {
-                ps.setInt(1, editSongId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        titleF.setText(rs.getString("title"));
-                        artistF.setText(rs.getString("artist"));
-                        genreF.setText(rs.getString("genre"));
-                        durationF.setText(String.valueOf(rs.getInt("duration")));
-                        releaseF.setText(rs.getString("release_date"));
-                        imagePathF.setText(rs.getString("image_path"));
-                        audioPathF.setText(rs.getString("audio_path"));
-                        if (imagePathF.getText() != null && !imagePathF.getText().isEmpty()) {
-                            imagePreview.setIcon(loadScaledIcon(imagePathF.getText(), 140, 140));
-                        }
+            async.submit("editSong", () -> songCatalog.get(editSongId), s -> {
+                if (s != null) {
+                    titleF.setText(s.getTitle());
+                    artistF.setText(s.getArtist());
+                    genreF.setText(s.getGenre());
+                    durationF.setText(String.valueOf(s.getDuration()));
+                    releaseF.setText(s.getReleaseDate());
+                    imagePathF.setText(s.getImagePath());
+                    audioPathF.setText(s.getAudioPath());
+                    if (imagePathF.getText() != null && !imagePathF.getText().isEmpty()) {
+                        imagePreview.setIcon(loadScaledIcon(imagePathF.getText(), 140, 140));
                     }
                 }
-            } catch (Exception ex) {
-                showError("Error loading song for edit", ex);
-            }
+            }, ex -> showError("Error loading song for edit", ex));
         }
 
         dialog.add(content, BorderLayout.CENTER);
@@ -403,50 +479,44 @@ public class AdminDashboard extends JFrame {
 
         JButton ok = createStyledButton("✅ Save", new Color(70, 180, 120));
         ok.addActionListener(e -> {
+            String t = titleF.getText();
+            String art = artistF.getText();
+            String g = genreF.getText();
+            int dur;
             try {
-                String t = titleF.getText();
-                String art = artistF.getText();
-                String g = genreF.getText();
-                int dur = Integer.parseInt(durationF.getText().isEmpty() ? "0" : durationF.getText());
-                String rel = releaseF.getText();
-                String img = imagePathF.getText();
-                String aud = audioPathF.getText();
+                dur = Integer.parseInt(durationF.getText().isEmpty() ? "0" : durationF.getText());
+            } catch (NumberFormatException nfe) {
+                JOptionPane.showMessageDialog(dialog, "Duration must be a number (seconds).");
+                return;
+            }
+            String rel = releaseF.getText();
+            String img = imagePathF.getText();
+            String aud = audioPathF.getText();
 
+            ok.setEnabled(false);
+            async.execute(() -> {
+                Song saved;
                 if (editSongId == null) {
-                    try (Connection con = DBConnection.getConnection();
-                         PreparedStatement ps = con.prepareStatement("INSERT INTO songs (title, artist, genre, duration, release_date, image_path, audio_path) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
-                        ps.setString(1, t);
-                        ps.setString(2, art);
-                        ps.setString(3, g);
-                        ps.setInt(4, dur);
-                        ps.setString(5, rel);
-                        ps.setString(6, img);
-                        ps.setString(7, aud);
-                        ps.executeUpdate();
-                    }
-                    showInfo("Song added");
+                    saved = songCatalog.add(new Song(0, t, art, g, dur, rel, img, aud));
                 } else {
-                    try (Connection con = DBConnection.getConnection();
-                         PreparedStatement ps = con.prepareStatement("UPDATE songs SET title=?, artist=?, genre=?, duration=?, release_date=?, image_path=?, audio_path=? WHERE id=?")) {
-                        ps.setString(1, t);
-                        ps.setString(2, art);
-                        ps.setString(3, g);
-                        ps.setInt(4, dur);
-                        ps.setString(5, rel);
-                        ps.setString(6, img);
-                        ps.setString(7, aud);
-                        ps.setInt(8, editSongId);
-                        ps.executeUpdate();
-                    }
-                    showInfo("Song updated");
+                    saved = new Song(editSongId, t, art, g, dur, rel, img, aud);
+                    songCatalog.update(saved);
                 }
+                ThumbnailStore.getInstance().generate(img);
+                try {
+                    metadataIngest.ingest(saved);
+                } catch (Exception probeFailed) {
+                    // the song is saved; its audio info is filled in by the next scan
+                    probeFailed.printStackTrace();
+                }
+            }, () -> {
+                showInfo(editSongId == null ? "Song added" : "Song updated");
                 dialog.dispose();
                 loadSongs();
-            } catch (NumberFormatException nfe) {
-                JOptionPane.showMessageDialog(dialog, "Duration must be a number (seconds).");
-            } catch (Exception ex) {
+            }, ex -> {
+                ok.setEnabled(true);
                 showError("Error saving song", ex);
-            }
+            });
         });
 
         JButton cancel = createStyledButton("Cancel", new Color(120, 120, 120));
@@ -472,15 +542,10 @@ public class AdminDashboard extends JFrame {
         int id = (int) songModel.getValueAt(row, 0);
         int confirm = JOptionPane.showConfirmDialog(this, "Delete this song?", "Confirm", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            try (Connection con = DBConnection.getConnection();
-                 PreparedStatement ps = con.prepareStatement("DELETE FROM songs WHERE id=?")) {
-                ps.setInt(1, id);
-                ps.executeUpdate();
+            async.execute(() -> songCatalog.delete(id), () -> {
                 showInfo("Song deleted");
                 loadSongs();
-            } catch (Exception ex) {
-                showError("Error deleting song", ex);
-            }
+            }, ex -> showError("Error deleting song", ex));
         }
     }
 
@@ -488,13 +553,19 @@ public class AdminDashboard extends JFrame {
     private JPanel createArtistPanel() {
         JPanel panel = createBasePanel();
         String[] cols = {"Artist_ID", "Name", "Country", "Image_Path"};
-        artistModel = new DefaultTableModel(cols, 0) {
-            public boolean isCellEditable(int r, int c) { return false; }
-        };
+        artistModel = new PagedTableModel<>(cols, artistRepository::findPageAfter, Artist::getId, a -> new Object[]{
+                a.getId(),
+                a.getName(),
+                a.getCountry(),
+                a.getImagePath()
+        });
+        artistModel.setOnError(e -> showError("Error loading artists", e));
         artistTable = new JTable(artistModel);
         styleTable(artistTable);
 
-        panel.add(new JScrollPane(artistTable), BorderLayout.CENTER);
+        JScrollPane scroll = new JScrollPane(artistTable);
+        artistModel.attachTo(scroll);
+        panel.add(scroll, BorderLayout.CENTER);
 
         JPanel btnRow = new JPanel(new FlowLayout(FlowLayout.LEFT));
         btnRow.setOpaque(false);
@@ -503,7 +574,10 @@ public class AdminDashboard extends JFrame {
         btnRow.add(createStyledButton("➕ Add Artist", new Color(90, 180, 140), e -> openArtistDialog(null)));
         btnRow.add(createStyledButton("✏️ Edit Artist", new Color(90, 140, 220), e -> editArtistAction()));
         btnRow.add(createStyledButton("🗑 Delete Artist", new Color(200, 80, 80), e -> deleteArtist()));
-        btnRow.add(createStyledButton("🔄 Refresh", new Color(130, 130, 130), e -> loadArtists()));
+        btnRow.add(createStyledButton("🔄 Refresh", new Color(130, 130, 130), e -> {
+            artistCatalog.invalidate();
+            loadArtists();
+        }));
 
         panel.add(btnRow, BorderLayout.SOUTH);
         loadArtists();
@@ -511,21 +585,7 @@ public class AdminDashboard extends JFrame {
     }
 
     private void loadArtists() {
-        artistModel.setRowCount(0);
-        try (Connection con = DBConnection.getConnection();
-             Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery("SELECT * FROM artist")) {
-            while (rs.next()) {
-                artistModel.addRow(new Object[]{
-                        rs.getInt("artist_id"),
-                        rs.getString("name"),
-                        rs.getString("country"),
-                        rs.getString("image_path")
-                });
-            }
-        } catch (Exception e) {
-            showError("Error loading artists", e);
-        }
+        artistModel.reload();
     }
 
     private void openArtistDialog(Integer editArtistId) {
@@ -555,6 +615,8 @@ public class AdminDashboard extends JFrame {
             File f = chooseFile(dialog, new String[]{"png","jpg","jpeg"}, "Image Files");
             if (f != null) {
                 imagePathF.setText(f.getAbsolutePath());
+                // the file may have been replaced on disk since it was last cached
+                ImageCache.getInstance().invalidate(f.getAbsolutePath());
                 preview.setIcon(loadScaledIcon(f.getAbsolutePath(), 160, 160));
             }
         });
@@ -581,21 +643,15 @@ public class AdminDashboard extends JFrame {
 
         // If editing, load row
         if (editArtistId != null) {
-            try (Connection con = DBConnection.getConnection();
-                 PreparedStatement ps = con.prepareStatement("SELECT * FROM artist WHERE artist_id = ?")) {
-                ps.setInt(1, editArtistId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        nameF.setText(rs.getString("name"));
-                        countryF.setText(rs.getString("country"));
-                        imagePathF.setText(rs.getString("image_path"));
-                        if (imagePathF.getText() != null && !imagePathF.getText().isEmpty())
-                            preview.setIcon(loadScaledIcon(imagePathF.getText(), 160, 160));
-                    }
+            async.submit("editArtist", () -> artistCatalog.get(editArtistId), a -> {
+                if (a != null) {
+                    nameF.setText(a.getName());
+                    countryF.setText(a.getCountry());
+                    imagePathF.setText(a.getImagePath());
+                    if (imagePathF.getText() != null && !imagePathF.getText().isEmpty())
+                        preview.setIcon(loadScaledIcon(imagePathF.getText(), 160, 160));
                 }
-            } catch (Exception ex) {
-                showError("Error loading artist for edit", ex);
-            }
+            }, ex -> showError("Error loading artist for edit", ex));
         }
 
         dialog.add(content, BorderLayout.CENTER);
@@ -604,35 +660,26 @@ public class AdminDashboard extends JFrame {
         bottom.setOpaque(false);
         JButton save = createStyledButton("✅ Save", new Color(70, 180, 120));
         save.addActionListener(e -> {
-            try {
-                String n = nameF.getText();
-                String c = countryF.getText();
-                String img = imagePathF.getText();
+            String n = nameF.getText();
+            String c = countryF.getText();
+            String img = imagePathF.getText();
+
+            save.setEnabled(false);
+            async.execute(() -> {
                 if (editArtistId == null) {
-                    try (Connection con = DBConnection.getConnection();
-                         PreparedStatement ps = con.prepareStatement("INSERT INTO artist (name, country, image_path) VALUES (?, ?, ?)")) {
-                        ps.setString(1, n);
-                        ps.setString(2, c);
-                        ps.setString(3, img);
-                        ps.executeUpdate();
-                    }
-                    showInfo("Artist added");
+                    artistCatalog.add(new Artist(0, n, c, img));
                 } else {
-                    try (Connection con = DBConnection.getConnection();
-                         PreparedStatement ps = con.prepareStatement("UPDATE artist SET name=?, country=?, image_path=? WHERE artist_id=?")) {
-                        ps.setString(1, n);
-                        ps.setString(2, c);
-                        ps.setString(3, img);
-                        ps.setInt(4, editArtistId);
-                        ps.executeUpdate();
-                    }
-                    showInfo("Artist updated");
+                    artistCatalog.update(new Artist(editArtistId, n, c, img));
                 }
+                ThumbnailStore.getInstance().generate(img);
+            }, () -> {
+                showInfo(editArtistId == null ? "Artist added" : "Artist updated");
                 dialog.dispose();
                 loadArtists();
-            } catch (Exception ex) {
+            }, ex -> {
+                save.setEnabled(true);
                 showError("Error saving artist", ex);
-            }
+            });
         });
 
         JButton cancel = createStyledButton("Cancel", new Color(120,120,120));
@@ -657,45 +704,25 @@ public class AdminDashboard extends JFrame {
         int id = (int) artistModel.getValueAt(row, 0);
         int confirm = JOptionPane.showConfirmDialog(this, "Delete this artist?", "Confirm", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            try (Connection con = DBConnection.getConnection();
-                 PreparedStatement ps = con.prepareStatement("DELETE FROM artist WHERE artist_id=?")) {
-                ps.setInt(1, id);
-                ps.executeUpdate();
+            async.execute(() -> artistCatalog.delete(id), () -> {
                 showInfo("Artist deleted");
                 loadArtists();
-            } catch (Exception ex) {
-                showError("Error deleting artist", ex);
-            }
+            }, ex -> showError("Error deleting artist", ex));
         }
     }
 
     // -------------------- AUDIO PLAYBACK --------------------
     private void playAudio(String path) {
-        stopAudio();
-        try {
-            File f = new File(path);
-            if (!f.exists()) {
-                JOptionPane.showMessageDialog(this, "Audio file not found: " + path);
-                return;
-            }
-            Media media = new Media(f.toURI().toString());
-            fxPlayer = new MediaPlayer(media);
-            fxPlayer.play();
-        } catch (Exception e) {
-            showError("Could not play audio", e);
+        File f = new File(path);
+        if (!f.exists()) {
+            JOptionPane.showMessageDialog(this, "Audio file not found: " + path);
+            return;
         }
+        player.play(path);
     }
 
     private void stopAudio() {
-        try {
-            if (fxPlayer != null) {
-                fxPlayer.stop();
-                fxPlayer.dispose();
-                fxPlayer = null;
-            }
-        } catch (Exception e) {
-            // ignore
-        }
+        player.stop();
     }
 
     // -------------------- MINI PLAYER PANEL --------------------
@@ -790,22 +817,8 @@ public class AdminDashboard extends JFrame {
     }
 
     private ImageIcon loadScaledIcon(String pathOrResource, int w, int h) {
-        try {
-            Image img = null;
-            // try resource first
-            URL res = getClass().getClassLoader().getResource(pathOrResource);
-            if (res != null) img = ImageIO.read(res);
-            if (img == null) {
-                File f = new File(pathOrResource);
-                if (f.exists()) img = ImageIO.read(f);
-            }
-            if (img != null) {
-                Image scaled = img.getScaledInstance(w, h, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaled);
-            }
-        } catch (Exception e) {
-            // ignore
-        }
+        ImageIcon icon = ImageCache.getInstance().get(pathOrResource, w, h);
+        if (icon != null) return icon;
         // return placeholder
         BufferedImagePlaceholder placeholder = new BufferedImagePlaceholder(w, h);
         return new ImageIcon(placeholder.getImage());
@@ -818,7 +831,7 @@ public class AdminDashboard extends JFrame {
         return "Segoe UI Emoji";
     }
 
-    private void showError(String msg, Exception e) {
+    private void showError(String msg, Throwable e) {
         e.printStackTrace();
         JOptionPane.showMessageDialog(this, "⚠ " + msg + ": " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
     }
@@ -827,29 +840,6 @@ public class AdminDashboard extends JFrame {
         JOptionPane.showMessageDialog(this, msg, "Info", JOptionPane.INFORMATION_MESSAGE);
     }
 
-    // -------------------- Small placeholder image generator --------------------
-    // Simple inner helper to create a neutral image when file not found.
-    private static class BufferedImagePlaceholder {
-        private final Image image;
-        BufferedImagePlaceholder(int w, int h) {
-            java.awt.image.BufferedImage img = new java.awt.image.BufferedImage(w, h, java.awt.image.BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g = img.createGraphics();
-            g.setColor(new Color(40, 40, 40));
-            g.fillRect(0,0,w,h);
-            g.setColor(new Color(90, 90, 90));
-            g.drawRect(2,2,w-4,h-4);
-            g.setColor(new Color(140,140,140));
-            g.setFont(new Font("Arial", Font.PLAIN, Math.max(12, w/10)));
-            FontMetrics fm = g.getFontMetrics();
-            String s = "No Image";
-            int sw = fm.stringWidth(s);
-            g.drawString(s, (w-sw)/2, h/2 + fm.getAscent()/2);
-            g.dispose();
-            image = img;
-        }
-        public Image getImage() { return image; }
-    }
-
     // -------------------- Main --------------------
     public static void main(String[] args) {
         // Ensure look & feel (optional)
@@ -4,26 +4,66 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
-import java.net.URL;
-import java.sql.*;
-import javax.imageio.ImageIO;
-
-import db.DBConnection;
-import javafx.embed.swing.JFXPanel;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
-
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import audio.PlaybackEngine;
+import catalog.ArtistCatalog;
+import catalog.SongCatalog;
+import db.AsyncDataService;
+import model.Artist;
+import model.Song;
+
+/**
+ * Artist grid with a drill-down into each artist's songs.
+ *
+ * Both levels are built from the in-memory catalogs rather than SQL and are
+ * kept once built: Back swaps the existing artist grid back in, and the last
+ * few per-artist song views are cached whole (cards, decoded art and all).
+ * Each view remembers the catalog version it was built from and is only
+ * rebuilt once an admin edit has moved the catalog on.
+ */
 public class ArtistPanel extends JPanel {
 
-    private MediaPlayer mediaPlayer;
+    /** Per-artist song views kept for instant revisits. */
+    private static final int CACHED_SONG_VIEWS = 8;
+
+    private final PlaybackEngine player = PlaybackEngine.getInstance();
     private JPanel artistGrid;
     private JScrollPane scrollPane;
+    private VisibleImageBinder artistImages;
     private JLabel header;
     private String emojiFont;
+    private long artistsVersion = -1; // ArtistCatalog version the grid was built from
+    private boolean showingArtists = true;
+
+    private final ArtistCatalog artistCatalog = ArtistCatalog.getInstance();
+    private final SongCatalog songCatalog = SongCatalog.getInstance();
+    private final AsyncDataService async = new AsyncDataService();
+
+    /** One artist's songs page, kept while it's among the most recently viewed. */
+    private static class SongsView {
+        final JPanel root;
+        final VisibleImageBinder images;
+        final long version; // SongCatalog version it was built from
+
+        SongsView(JPanel root, VisibleImageBinder images, long version) {
+            this.root = root;
+            this.images = images;
+            this.version = version;
+        }
+    }
 
-    public ArtistPanel() {
-        new JFXPanel(); // Initialize JavaFX runtime
+    private final Map<Integer, SongsView> songViews = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, SongsView> eldest) {
+            if (size() <= CACHED_SONG_VIEWS) return false;
+            eldest.getValue().images.clear();
+            return true;
+        }
+    };
 
+    public ArtistPanel() {
         // Detect OS for emoji font
         String os = System.getProperty("os.name").toLowerCase();
         emojiFont = "Segoe UI Emoji"; // Windows default
@@ -48,36 +88,44 @@ public class ArtistPanel extends JPanel {
         scrollPane = new JScrollPane(artistGrid);
         scrollPane.setBorder(null);
         add(scrollPane, BorderLayout.CENTER);
+        artistImages = new VisibleImageBinder(scrollPane);
 
-        // Load artists from DB
-        loadArtistsFromDB();
-    }
-
-    /** Load artists from the database **/
-    private void loadArtistsFromDB() {
-        artistGrid.removeAll();
-
-        String query = "SELECT Artist_ID, Name, Country, Image_Path FROM artist";
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        // pick up admin edits made while another tab was showing
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing() && showingArtists
+                    && artistsVersion != artistCatalog.getVersion()) {
+                loadArtists();
+            }
+        });
 
-            while (rs.next()) {
-                int id = rs.getInt("Artist_ID");
-                String name = rs.getString("Name");
-                String country = rs.getString("Country");
-                String imagePath = rs.getString("Image_Path"); // DB path
+        loadArtists();
+    }
 
-                JPanel card = createArtistCard(id, name, country, imagePath);
+    /** (Re)build the artist grid from the artist catalog **/
+    private void loadArtists() {
+        long version = artistCatalog.getVersion();
+        async.submit("artists", artistCatalog::getAll, artists -> {
+            artistsVersion = version;
+            artistImages.clear();
+            artistGrid.removeAll();
+            for (Artist a : artists) {
+                JPanel card = createArtistCard(a.getId(), a.getName(), a.getCountry(), a.getImagePath());
                 artistGrid.add(card);
             }
+            artistGrid.revalidate();
+            artistGrid.repaint();
+        }, Throwable::printStackTrace);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        artistGrid.revalidate();
-        artistGrid.repaint();
+    /** Back to the artist grid as it was left; rebuilt only if artists changed since */
+    private void showArtists() {
+        showingArtists = true;
+        removeAll();
+        add(header, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        revalidate();
+        repaint();
+        if (artistsVersion != artistCatalog.getVersion()) loadArtists();
     }
 
     /** Create artist card **/
@@ -87,10 +135,10 @@ public class ArtistPanel extends JPanel {
         card.setBackground(new Color(28, 28, 28));
         card.setBorder(BorderFactory.createLineBorder(new Color(60, 60, 60), 2, true));
 
-        // Load image
-        ImageIcon icon = loadImage(imagePath, "images/artist_placeholder.jpg", 200, 200);
-        JLabel imageLabel = new JLabel(icon);
+        // Image is decoded in the background once the card scrolls into view
+        JLabel imageLabel = new JLabel();
         imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        artistImages.bind(imageLabel, imagePath, "images/artist_placeholder.jpg", 200, 200);
 
         // Name + country
         JLabel nameLabel = new JLabel("<html><center>" + name + "<br/>" + country + "</center></html>", SwingConstants.CENTER);
@@ -113,13 +161,24 @@ public class ArtistPanel extends JPanel {
         return card;
     }
 
-    /** Show songs by artist **/
+    /** Show songs by artist, from the cached view if the catalog hasn't changed since it was built **/
     private void showSongsByArtist(int artistId, String artistName) {
+        SongsView view = songViews.get(artistId);
+        if (view == null || view.version != songCatalog.getVersion()) {
+            if (view != null) view.images.clear();
+            view = buildSongsView(artistId, artistName);
+            songViews.put(artistId, view);
+        }
+        showingArtists = false;
         removeAll();
+        add(view.root, BorderLayout.CENTER);
         revalidate();
         repaint();
+    }
 
-        setLayout(new BorderLayout());
+    private SongsView buildSongsView(int artistId, String artistName) {
+        JPanel root = new JPanel(new BorderLayout());
+        root.setBackground(new Color(18, 18, 18));
 
         // Header with back button
         JPanel headerPanel = new JPanel(new BorderLayout());
@@ -129,15 +188,7 @@ public class ArtistPanel extends JPanel {
         JButton backButton = new JButton("⬅ Back");
         backButton.setFont(new Font(emojiFont, Font.BOLD, 13));
         styleButton(backButton, new Color(80, 80, 80));
-        backButton.addActionListener(e -> {
-            removeAll();
-            setLayout(new BorderLayout());
-            add(header, BorderLayout.NORTH);
-            add(scrollPane, BorderLayout.CENTER);
-            loadArtistsFromDB();
-            revalidate();
-            repaint();
-        });
+        backButton.addActionListener(e -> showArtists());
 
         JLabel title = new JLabel(artistName + " — Songs", SwingConstants.CENTER);
         title.setForeground(Color.WHITE);
@@ -145,49 +196,45 @@ public class ArtistPanel extends JPanel {
 
         headerPanel.add(backButton, BorderLayout.WEST);
         headerPanel.add(title, BorderLayout.CENTER);
-        add(headerPanel, BorderLayout.NORTH);
+        root.add(headerPanel, BorderLayout.NORTH);
 
         JPanel songsPanel = new JPanel(new GridLayout(0, 3, 20, 20));
         songsPanel.setBackground(new Color(18, 18, 18));
         songsPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
-        // Load songs for this artist
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement("SELECT * FROM songs WHERE artist_id = ?")) {
-
-            ps.setInt(1, artistId);
-            ResultSet rs = ps.executeQuery();
-
-            while (rs.next()) {
-                String titleStr = rs.getString("title");
-                String imagePath = rs.getString("image_path");
-                String audioPath = rs.getString("audio_path");
-
-                JPanel songCard = createSongCard(titleStr, imagePath, audioPath);
+        JScrollPane scroll = new JScrollPane(songsPanel);
+        scroll.setBorder(null);
+        root.add(scroll, BorderLayout.CENTER);
+        VisibleImageBinder images = new VisibleImageBinder(scroll);
+        long version = songCatalog.getVersion();
+
+        // Songs come from the catalog's artist index; only the very first use loads it from MySQL
+        // keyed per artist: leaving or opening another artist mustn't cancel a view that's being cached
+        async.submit("artistSongs" + artistId, () -> songCatalog.getByArtistId(artistId), songs -> {
+            for (Song song : songs) {
+                JPanel songCard = createSongCard(images, song.getTitle(), song.getImagePath(), song.getAudioPath());
                 songsPanel.add(songCard);
             }
-
-        } catch (Exception e) {
+            songsPanel.revalidate();
+            songsPanel.repaint();
+        }, e -> {
+            songViews.remove(artistId); // don't keep a half-built view
             e.printStackTrace();
-        }
+        });
 
-        JScrollPane scroll = new JScrollPane(songsPanel);
-        scroll.setBorder(null);
-        add(scroll, BorderLayout.CENTER);
-        revalidate();
-        repaint();
+        return new SongsView(root, images, version);
     }
 
-    /** Create song card **/
-    private JPanel createSongCard(String title, String imagePath, String audioPath) {
+    /** Create song card; its art is bound through the view's own binder **/
+    private JPanel createSongCard(VisibleImageBinder images, String title, String imagePath, String audioPath) {
         JPanel card = new JPanel(new BorderLayout());
         card.setPreferredSize(new Dimension(200, 240));
         card.setBackground(new Color(30, 30, 30));
         card.setBorder(BorderFactory.createLineBorder(new Color(60, 60, 60), 2, true));
 
-        ImageIcon icon = loadImage(imagePath, "images/Lata_Mangeshkar.jpeg", 200, 200);
-        JLabel imgLabel = new JLabel(icon);
+        JLabel imgLabel = new JLabel();
         imgLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        images.bind(imgLabel, imagePath, "images/Lata_Mangeshkar.jpeg", 200, 200);
 
         JLabel titleLabel = new JLabel(title, SwingConstants.CENTER);
         titleLabel.setForeground(Color.WHITE);
@@ -227,63 +274,22 @@ public class ArtistPanel extends JPanel {
         btn.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
     }
 
-    /** Load image from resource or file with fallback **/
-    private ImageIcon loadImage(String path, String defaultPath, int width, int height) {
-        try {
-            Image img = null;
-
-            // Try loading from resources
-            if (path != null && !path.isEmpty()) {
-                URL imgURL = getClass().getClassLoader().getResource(path);
-                if (imgURL != null) img = ImageIO.read(imgURL);
-            }
-
-            // Absolute file path
-            if (img == null && path != null && !path.isEmpty()) {
-                File file = new File(path);
-                if (file.exists() && file.isFile()) img = ImageIO.read(file);
-            }
-
-            // Fallback
-            if (img == null) {
-                URL fallbackURL = getClass().getClassLoader().getResource(defaultPath);
-                if (fallbackURL != null) img = ImageIO.read(fallbackURL);
-            }
-
-            if (img != null) return new ImageIcon(img.getScaledInstance(width, height, Image.SCALE_SMOOTH));
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        return new ImageIcon();
-    }
-
     /** Audio Controls **/
     private void playAudio(String audioPath) {
-        stopAudio();
-        try {
-            if (audioPath == null || audioPath.trim().isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No audio file found.", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-            File audioFile = new File(audioPath);
-            if (!audioFile.exists()) {
-                JOptionPane.showMessageDialog(this, "Audio not found: " + audioFile.getAbsolutePath(),
-                        "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-
-            Media media = new Media(audioFile.toURI().toString());
-            mediaPlayer = new MediaPlayer(media);
-            mediaPlayer.play();
-
-        } catch (Exception e) {
-            e.printStackTrace();
+        if (audioPath == null || audioPath.trim().isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No audio file found.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        File audioFile = new File(audioPath);
+        if (!audioFile.exists()) {
+            JOptionPane.showMessageDialog(this, "Audio not found: " + audioFile.getAbsolutePath(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        player.play(audioPath);
     }
 
     private void stopAudio() {
-        if (mediaPlayer != null) mediaPlayer.stop();
+        player.stop();
     }
 }
@@ -3,8 +3,9 @@ package gui;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.sql.*;
-import db.DBConnection;
+import db.AsyncDataService;
+import db.UserRepository;
+import model.Admin;
 import model.User;
 
 public class AuthPage extends JFrame {
@@ -15,6 +16,9 @@ public class AuthPage extends JFrame {
     private JPasswordField loginPasswordField, registerPasswordField;
     private JLabel loginMessage, registerMessage;
 
+    private final UserRepository userRepository = new UserRepository();
+    private final AsyncDataService async = new AsyncDataService();
+
     public AuthPage() {
         setTitle("🎧 Music App - Login / Register");
         setSize(450, 650);
@@ -161,39 +165,27 @@ public class AuthPage extends JFrame {
             return;
         }
 
-        try (Connection con = DBConnection.getConnection()) {
+        // Admin is checked first; result is an Admin, a User, or null
+        async.submit("login", () -> {
+            Admin admin = userRepository.authenticateAdmin(email, password);
+            return admin != null ? admin : userRepository.authenticate(email, password);
+        }, account -> {
 
             // ✅ Check Admin login first
-            PreparedStatement psAdmin = con.prepareStatement(
-                    "SELECT * FROM admin WHERE Email=? AND Password=?");
-            psAdmin.setString(1, email);
-            psAdmin.setString(2, password);
-            ResultSet rsAdmin = psAdmin.executeQuery();
-
-            if (rsAdmin.next()) {
+            if (account instanceof Admin) {
+                Admin admin = (Admin) account;
                 JOptionPane.showMessageDialog(this,
-                        "👑 Welcome Admin " + rsAdmin.getString("Name") + "!");
+                        "👑 Welcome Admin " + admin.getName() + "!");
                 dispose();
                 new  AdminDashboard(); // ✅ open admin dashboard
                 return;
             }
 
             // ✅ Check User login
-            PreparedStatement psUser = con.prepareStatement(
-                    "SELECT * FROM user WHERE Email=? AND Password=?");
-            psUser.setString(1, email);
-            psUser.setString(2, password);
-            ResultSet rsUser = psUser.executeQuery();
-
-            if (rsUser.next()) {
+            if (account instanceof User) {
+                User user = (User) account;
                 JOptionPane.showMessageDialog(this,
-                        "Welcome " + rsUser.getString("Full_Name") + " 🎶");
-
-                User user = new User(
-                        rsUser.getInt("User_ID"),
-                        rsUser.getString("Full_Name"),
-                        rsUser.getString("Email")
-                );
+                        "Welcome " + user.getFullName() + " 🎶");
 
                 dispose();
                 new Dashboard(user);
@@ -202,10 +194,10 @@ public class AuthPage extends JFrame {
                 loginMessage.setText("❌ Invalid credentials!");
             }
 
-        } catch (Exception e) {
+        }, e -> {
             e.printStackTrace();
             loginMessage.setText("⚠ Database error!");
-        }
+        });
     }
 
     // ---------------- REGISTER LOGIC ----------------
@@ -221,32 +213,26 @@ public class AuthPage extends JFrame {
             return;
         }
 
-        try (Connection con = DBConnection.getConnection()) {
-            PreparedStatement check = con.prepareStatement("SELECT * FROM user WHERE Email=?");
-            check.setString(1, email);
-            ResultSet rs = check.executeQuery();
+        async.submit("register", () -> {
+            if (userRepository.emailExists(email)) return false;
 
-            if (rs.next()) {
+            userRepository.register(name, email, password,
+                    dob.isEmpty() ? null : dob,
+                    country.isEmpty() ? null : country);
+            return true;
+        }, created -> {
+            if (!created) {
                 registerMessage.setText("⚠ Email already exists!");
                 return;
             }
 
-            PreparedStatement ps = con.prepareStatement(
-                    "INSERT INTO user (Full_Name, Email, Password, Date_of_Birth, Country) VALUES (?, ?, ?, ?, ?)");
-            ps.setString(1, name);
-            ps.setString(2, email);
-            ps.setString(3, password);
-            ps.setString(4, dob.isEmpty() ? null : dob);
-            ps.setString(5, country.isEmpty() ? null : country);
-            ps.executeUpdate();
-
             JOptionPane.showMessageDialog(this, "🎉 Account created successfully!");
             cardLayout.show(mainPanel, "login");
 
-        } catch (Exception e) {
+        }, e -> {
             e.printStackTrace();
             registerMessage.setText("⚠ Database error while registering!");
-        }
+        });
     }
 
     // ---------------- STYLE HELPERS ----------------
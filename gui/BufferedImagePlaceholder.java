@@ -0,0 +1,46 @@
+package gui;
+
+import javax.swing.ImageIcon;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Neutral stand-in image for art that is missing or still being decoded.
+ */
+class BufferedImagePlaceholder {
+
+    private static final Map<String, ImageIcon> LOADING = new ConcurrentHashMap<>();
+
+    private final Image image;
+
+    BufferedImagePlaceholder(int w, int h) {
+        this(w, h, "No Image");
+    }
+
+    BufferedImagePlaceholder(int w, int h, String text) {
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = img.createGraphics();
+        g.setColor(new Color(40, 40, 40));
+        g.fillRect(0, 0, w, h);
+        g.setColor(new Color(90, 90, 90));
+        g.drawRect(2, 2, w - 4, h - 4);
+        if (text != null && !text.isEmpty()) {
+            g.setColor(new Color(140, 140, 140));
+            g.setFont(new Font("Arial", Font.PLAIN, Math.max(12, w / 10)));
+            FontMetrics fm = g.getFontMetrics();
+            int sw = fm.stringWidth(text);
+            g.drawString(text, (w - sw) / 2, h / 2 + fm.getAscent() / 2);
+        }
+        g.dispose();
+        image = img;
+    }
+
+    public Image getImage() { return image; }
+
+    /** Shared, text-less placeholder shown while art at this size is decoding. */
+    static ImageIcon loading(int w, int h) {
+        return LOADING.computeIfAbsent(w + "x" + h, k -> new ImageIcon(new BufferedImagePlaceholder(w, h, null).getImage()));
+    }
+}
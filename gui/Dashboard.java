@@ -3,20 +3,22 @@ package gui;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.List;
-import model.Song;
 import model.User;
-import db.DBConnection;
-import java.sql.*;
+import audio.PlaybackEngine;
+import audio.PlaybackListener;
+import catalog.SongCatalog;
+import java.io.File;
 
 public class Dashboard extends JFrame {
     private final User user;
-    private final AudioPlayer player;
-    private SongsPanel songsPanel;
+    private final PlaybackEngine player;
+    private PlaybackListener nowPlaying;
 
     public Dashboard(User user) {
+        StartupTimeline timeline = new StartupTimeline("Dashboard");
+        long frameStart = timeline.begin();
         this.user = user;
-        this.player = AudioPlayer.getInstance();
+        this.player = PlaybackEngine.getInstance();
 
         // FRAME SETUP
         setTitle("\uD83C\uDFB5 Welcome " + user.getFullName());
@@ -45,6 +47,8 @@ public class Dashboard extends JFrame {
                     JOptionPane.YES_NO_OPTION
             );
             if (confirm == JOptionPane.YES_OPTION) {
+                player.removeListener(nowPlaying);
+                player.stop();
                 dispose();
                 new AuthPage().setVisible(true);
             }
@@ -55,19 +59,20 @@ public class Dashboard extends JFrame {
         add(headerPanel, BorderLayout.NORTH);
 
         // TABBED PANE
-        JTabbedPane tabs = new JTabbedPane();
+        LazyTabbedPane tabs = new LazyTabbedPane(timeline);
         tabs.setFont(new Font("Segoe UI Symbol", Font.BOLD, 16));
         tabs.setBackground(new Color(30, 30, 30));
         tabs.setForeground(Color.WHITE);
 
-        // Load songs from DB
-        List<Song> allSongs = getAllSongsFromDB();
+        // Catalog comes up from its snapshot in the background; pages read MySQL directly until it's in
+        long catalogStart = timeline.begin();
+        SongCatalog.getInstance().preload().thenRun(() -> timeline.phase("song catalog ready", catalogStart));
 
-        // Initialize SongsPanel
-        songsPanel = new SongsPanel(allSongs);
-        tabs.addTab("\u266B Songs", songsPanel);
-        tabs.addTab("\uD83C\uDFA4 Artists", new ArtistPanel());
-        tabs.addTab("\uD83C\uDFB6 Playlists", new PlaylistPanel(user));
+        // Each panel is built when its tab is first opened (or pre-warmed just before);
+        // SongsPanel pages songs in from the catalog as it scrolls
+        tabs.addLazyTab("\u266B Songs", "Songs", () -> new SongsPanel(SongCatalog.getInstance()::getPageAfter));
+        tabs.addLazyTab("\uD83C\uDFA4 Artists", "Artists", ArtistPanel::new);
+        tabs.addLazyTab("\uD83C\uDFB6 Playlists", "Playlists", () -> new PlaylistPanel(user));
 
         add(tabs, BorderLayout.CENTER);
 
@@ -82,9 +87,27 @@ public class Dashboard extends JFrame {
         playingLabel.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 14));
         footerPanel.add(playingLabel);
 
+        // Footer follows the shared engine, whichever panel started the track
+        nowPlaying = new PlaybackListener() {
+            @Override
+            public void trackStarted(String path) {
+                playingLabel.setText("\u25B6 Now playing: " + new File(path).getName());
+            }
+
+            @Override
+            public void stateChanged(PlaybackEngine.State state) {
+                if (state == PlaybackEngine.State.LOADING) playingLabel.setText("Loading...");
+                else if (!state.hasTrack()) playingLabel.setText("No song playing");
+            }
+        };
+        player.addListener(nowPlaying);
+
         add(footerPanel, BorderLayout.SOUTH);
 
+        timeline.phase("window built", frameStart);
         setVisible(true);
+        // runs once the window's first layout and paint events have been handled
+        SwingUtilities.invokeLater(() -> timeline.phase("window shown", frameStart));
     }
 
     // BUTTON STYLE
@@ -104,32 +127,4 @@ public class Dashboard extends JFrame {
             }
         });
     }
-
-    // LOAD SONGS FROM DB
-    private List<Song> getAllSongsFromDB() {
-        List<Song> songs = new java.util.ArrayList<>();
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT * FROM songs")) {
-
-            while (rs.next()) {
-                java.sql.Date releaseDate = rs.getDate("release_date");
-                songs.add(new Song(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("artist"),
-                        rs.getString("genre"),
-                        rs.getInt("duration"),
-                        releaseDate != null ? releaseDate.toString() : "",
-                        rs.getString("image_path"),
-                        rs.getString("audio_path")
-                ));
-            }
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error loading songs: " + e.getMessage());
-        }
-        return songs;
-    }
 }
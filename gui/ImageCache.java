@@ -0,0 +1,259 @@
+package gui;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Shared cache of decoded, pre-scaled album and artist art.
+ *
+ * Entries are keyed by (path, width, height) and held strongly in an LRU whose
+ * budget is counted in decoded pixel bytes rather than entry count, so a wall of
+ * 200px artist photos and a list of 50px thumbnails share one fixed allowance.
+ * Anything pushed out of the LRU drops to a soft reference and is picked back up
+ * for free if the GC hasn't needed the memory yet.
+ *
+ * Paths are resolved as a classpath resource first, then as a file, matching
+ * what the panels did individually before. Misses at the standard UI sizes are
+ * served from {@link ThumbnailStore} when it has a fresh copy.
+ */
+class ImageCache {
+
+    /** Strongly held decoded bytes; ~32 MB is a few hundred 150px covers. */
+    private static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final ImageCache INSTANCE = new ImageCache(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;
+    private long currentBytes;
+
+    // access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, ImageIcon> strong = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Key, SoftEntry> soft = new HashMap<>();
+    private final ReferenceQueue<ImageIcon> cleared = new ReferenceQueue<>();
+    // paths that failed to resolve or decode, so they aren't retried on every paint
+    private final Set<Key> missing = new HashSet<>();
+
+    private long hits;
+    private long softHits;
+    private long misses;
+    private long evictions;
+
+    ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    static ImageCache getInstance() {
+        return INSTANCE;
+    }
+
+    // ===== LOOKUP =====
+
+    /**
+     * The image at {@code path} scaled to w x h, decoding it on a miss.
+     * Returns null if the path can't be found or decoded.
+     */
+    ImageIcon get(String path, int w, int h) {
+        if (path == null || path.isEmpty()) return null;
+        Key key = new Key(path, w, h);
+
+        synchronized (this) {
+            ImageIcon icon = lookup(key);
+            if (icon != null || missing.contains(key)) return icon;
+            misses++;
+        }
+
+        // decode outside the lock; two threads racing on one key just both decode once
+        BufferedImage scaled = decodeScaled(path, w, h);
+        synchronized (this) {
+            if (scaled == null) {
+                missing.add(key);
+                return null;
+            }
+            ImageIcon icon = new ImageIcon(scaled);
+            put(key, icon);
+            return icon;
+        }
+    }
+
+    /** Cached image only; never decodes. */
+    synchronized ImageIcon getIfPresent(String path, int w, int h) {
+        if (path == null || path.isEmpty()) return null;
+        return lookup(new Key(path, w, h));
+    }
+
+    /** True if a previous decode of this path at this size failed. */
+    synchronized boolean isMissing(String path, int w, int h) {
+        return path == null || path.isEmpty() || missing.contains(new Key(path, w, h));
+    }
+
+    /** Drop every size of one image, e.g. after an admin replaces the file. */
+    synchronized void invalidate(String path) {
+        strong.keySet().removeIf(k -> {
+            if (!k.path.equals(path)) return false;
+            currentBytes -= k.bytes();
+            return true;
+        });
+        soft.keySet().removeIf(k -> k.path.equals(path));
+        missing.removeIf(k -> k.path.equals(path));
+    }
+
+    synchronized void clear() {
+        strong.clear();
+        soft.clear();
+        missing.clear();
+        currentBytes = 0;
+    }
+
+    // callers hold the monitor
+    private ImageIcon lookup(Key key) {
+        ImageIcon icon = strong.get(key);
+        if (icon != null) {
+            hits++;
+            return icon;
+        }
+        expungeCleared();
+        SoftEntry ref = soft.remove(key);
+        icon = ref == null ? null : ref.get();
+        if (icon != null) {
+            softHits++;
+            put(key, icon);
+        }
+        return icon;
+    }
+
+    private void put(Key key, ImageIcon icon) {
+        if (strong.put(key, icon) == null) currentBytes += key.bytes();
+        soft.remove(key);
+
+        Iterator<Map.Entry<Key, ImageIcon>> it = strong.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, ImageIcon> eldest = it.next();
+            if (eldest.getKey().equals(key)) continue;
+            it.remove();
+            currentBytes -= eldest.getKey().bytes();
+            soft.put(eldest.getKey(), new SoftEntry(eldest.getKey(), eldest.getValue(), cleared));
+            evictions++;
+        }
+    }
+
+    private void expungeCleared() {
+        SoftEntry ref;
+        while ((ref = (SoftEntry) cleared.poll()) != null) {
+            soft.remove(ref.key, ref);
+        }
+    }
+
+    // ===== DECODE =====
+
+    private static BufferedImage decodeScaled(String path, int w, int h) {
+        boolean stored = ThumbnailStore.isStoredSize(w, h);
+        if (stored) {
+            BufferedImage thumb = ThumbnailStore.getInstance().load(path, w);
+            if (thumb != null) return thumb;
+        }
+        try {
+            BufferedImage src = null;
+            URL res = ImageCache.class.getClassLoader().getResource(path);
+            if (res != null) src = ImageIO.read(res);
+            if (src == null) {
+                File f = new File(path);
+                if (f.isFile()) src = ImageIO.read(f);
+            }
+            if (src == null) return null;
+            // one full decode pays for every size the UI uses
+            if (stored) ThumbnailStore.getInstance().save(path, src);
+            return scale(src, w, h);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /** Halve in steps while far above the target, then one bilinear pass: close to SCALE_SMOOTH, much cheaper. */
+    static BufferedImage scale(BufferedImage src, int w, int h) {
+        BufferedImage current = src;
+        int cw = src.getWidth();
+        int ch = src.getHeight();
+        while (cw / 2 >= w && ch / 2 >= h) {
+            cw /= 2;
+            ch /= 2;
+            current = draw(current, cw, ch);
+        }
+        return draw(current, w, h);
+    }
+
+    private static BufferedImage draw(BufferedImage src, int w, int h) {
+        BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = out.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(src, 0, 0, w, h, null);
+        g.dispose();
+        return out;
+    }
+
+    // ===== METRICS =====
+
+    synchronized long getHits() { return hits; }
+    synchronized long getSoftHits() { return softHits; }
+    synchronized long getMisses() { return misses; }
+    synchronized long getEvictions() { return evictions; }
+    synchronized long getCurrentBytes() { return currentBytes; }
+    long getMaxBytes() { return maxBytes; }
+
+    synchronized double getHitRate() {
+        long total = hits + softHits + misses;
+        return total == 0 ? 0 : (double) (hits + softHits) / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("ImageCache[%d entries, %d/%d KB, hits=%d, softHits=%d, misses=%d, evictions=%d]",
+                strong.size(), currentBytes / 1024, maxBytes / 1024, hits, softHits, misses, evictions);
+    }
+
+    // ===== KEY =====
+
+    private static final class Key {
+        final String path;
+        final int w;
+        final int h;
+
+        Key(String path, int w, int h) {
+            this.path = path;
+            this.w = w;
+            this.h = h;
+        }
+
+        long bytes() {
+            return 4L * w * h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return w == k.w && h == k.h && path.equals(k.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return (path.hashCode() * 31 + w) * 31 + h;
+        }
+    }
+
+    private static final class SoftEntry extends SoftReference<ImageIcon> {
+        final Key key;
+
+        SoftEntry(Key key, ImageIcon icon, ReferenceQueue<ImageIcon> queue) {
+            super(icon, queue);
+            this.key = key;
+        }
+    }
+}
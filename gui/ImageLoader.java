@@ -0,0 +1,148 @@
+package gui;
+
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Decodes art into {@link ImageCache} on a small background pool so the EDT
+ * never waits on ImageIO.
+ *
+ * The queue is newest-first: whatever a view asked for last (the cards that
+ * just scrolled into sight) is decoded before older requests. Requests for the
+ * same image and size share one decode, and a request nobody is waiting on any
+ * more is dropped from the queue before it starts.
+ */
+class ImageLoader {
+
+    private static final int THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    private static final ImageLoader INSTANCE = new ImageLoader(ImageCache.getInstance(), THREADS);
+
+    private final ImageCache cache;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, Task> pending = new HashMap<>();
+    private long sequence;
+    private long cancelled;
+
+    ImageLoader(ImageCache cache, int threads) {
+        this.cache = cache;
+        workers = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "image-decoder");
+                    t.setDaemon(true);
+                    t.setPriority(Thread.NORM_PRIORITY - 1);
+                    return t;
+                });
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    static ImageLoader getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queue a decode of {@code path} at w x h. {@code onReady} runs on the EDT
+     * with the icon, or null if the image can't be loaded, unless the returned
+     * ticket is cancelled first.
+     */
+    synchronized Ticket request(String path, int w, int h, Consumer<ImageIcon> onReady) {
+        String key = path + '\0' + w + 'x' + h;
+        Task task = pending.get(key);
+        if (task == null) {
+            task = new Task(key, path, w, h);
+            pending.put(key, task);
+            task.seq = ++sequence;
+            workers.execute(task);
+        } else if (!task.started && workers.getQueue().remove(task)) {
+            // asked for again: move it back to the front of the line
+            task.seq = ++sequence;
+            workers.execute(task);
+        }
+        Ticket ticket = new Ticket(task, onReady);
+        task.tickets.add(ticket);
+        return ticket;
+    }
+
+    private synchronized void cancel(Ticket ticket) {
+        ticket.cancelled = true;
+        Task task = ticket.task;
+        if (!task.tickets.remove(ticket)) return;
+        if (task.tickets.isEmpty() && !task.started && workers.getQueue().remove(task)) {
+            pending.remove(task.key);
+            cancelled++;
+        }
+    }
+
+    synchronized int getQueuedCount() { return workers.getQueue().size(); }
+    synchronized long getCancelledCount() { return cancelled; }
+
+    /** One caller's interest in a decode. */
+    final class Ticket {
+        private final Task task;
+        private final Consumer<ImageIcon> onReady;
+        private volatile boolean cancelled;
+
+        private Ticket(Task task, Consumer<ImageIcon> onReady) {
+            this.task = task;
+            this.onReady = onReady;
+        }
+
+        /** Stop waiting; the decode itself is dropped if nobody else wants it. */
+        void cancel() {
+            ImageLoader.this.cancel(this);
+        }
+    }
+
+    private final class Task implements Runnable, Comparable<Task> {
+        final String key;
+        final String path;
+        final int w;
+        final int h;
+        final List<Ticket> tickets = new ArrayList<>();
+        long seq;
+        boolean started;
+
+        Task(String key, String path, int w, int h) {
+            this.key = key;
+            this.path = path;
+            this.w = w;
+            this.h = h;
+        }
+
+        @Override
+        public void run() {
+            synchronized (ImageLoader.this) {
+                if (tickets.isEmpty()) {
+                    pending.remove(key, this);
+                    return;
+                }
+                started = true;
+            }
+            ImageIcon icon = cache.get(path, w, h);
+            List<Ticket> waiting;
+            synchronized (ImageLoader.this) {
+                pending.remove(key, this);
+                waiting = new ArrayList<>(tickets);
+                tickets.clear();
+            }
+            SwingUtilities.invokeLater(() -> {
+                for (Ticket t : waiting) {
+                    if (!t.cancelled) t.onReady.accept(icon);
+                }
+            });
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            return Long.compare(other.seq, seq); // newest first
+        }
+    }
+}
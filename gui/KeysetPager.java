@@ -0,0 +1,97 @@
+package gui;
+
+import db.AsyncDataService;
+import db.PageSource;
+
+import javax.swing.*;
+import java.awt.event.HierarchyEvent;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Drives keyset pagination for a scrollable view: fetches the next page in the
+ * background whenever the user scrolls near the bottom (or the loaded rows
+ * don't fill the viewport yet) and hands each page to the view on the EDT.
+ */
+class KeysetPager<T> {
+
+    private static final int NEAR_BOTTOM_PX = 200;
+
+    private final PageSource<T> source;
+    private final ToIntFunction<T> keyOf;
+    private final int pageSize;
+    private final Consumer<List<T>> onPage;
+    private final AsyncDataService async = new AsyncDataService();
+    private Consumer<Throwable> onError = Throwable::printStackTrace;
+
+    private JScrollPane scrollPane;
+    private int lastKey = PageSource.FIRST;
+    private boolean loading;
+    private boolean exhausted;
+    private boolean suspended;
+
+    KeysetPager(PageSource<T> source, ToIntFunction<T> keyOf, int pageSize, Consumer<List<T>> onPage) {
+        this.source = source;
+        this.keyOf = keyOf;
+        this.pageSize = pageSize;
+        this.onPage = onPage;
+    }
+
+    /** Load more whenever the scroll pane gets close to the end. */
+    void attachTo(JScrollPane scroll) {
+        this.scrollPane = scroll;
+        scroll.getVerticalScrollBar().addAdjustmentListener(e -> loadMoreIfNeeded());
+        // a view in a hidden tab has no real size yet; re-check once it's shown
+        scroll.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) loadMoreIfNeeded();
+        });
+    }
+
+    /** Forget everything loaded so far and start again from the first page. */
+    void reset() {
+        async.cancel("page");
+        lastKey = PageSource.FIRST;
+        loading = false;
+        exhausted = false;
+        suspended = false;
+        loadNext();
+    }
+
+    /** Stop paging (e.g. while the view shows search results) until the next {@link #reset()}. */
+    void suspend() {
+        async.cancel("page");
+        loading = false;
+        suspended = true;
+    }
+
+    void loadNext() {
+        if (loading || exhausted || suspended) return;
+        loading = true;
+        int after = lastKey;
+        async.submit("page", () -> source.fetchAfter(after, pageSize), page -> {
+            loading = false;
+            if (!page.isEmpty()) lastKey = keyOf.applyAsInt(page.get(page.size() - 1));
+            if (page.size() < pageSize) exhausted = true;
+            onPage.accept(page);
+            // keep going until the viewport is full, then wait for scrolling
+            SwingUtilities.invokeLater(this::loadMoreIfNeeded);
+        }, e -> {
+            loading = false;
+            onError.accept(e);
+        });
+    }
+
+    void setOnError(Consumer<Throwable> onError) { this.onError = onError; }
+
+    boolean isExhausted() { return exhausted; }
+
+    private void loadMoreIfNeeded() {
+        if (scrollPane != null && scrollPane.isShowing() && nearBottom()) loadNext();
+    }
+
+    private boolean nearBottom() {
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        return bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - NEAR_BOTTOM_PX;
+    }
+}
@@ -0,0 +1,63 @@
+package gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Tabbed pane whose tab contents are built the first time the tab is
+ * selected, so a panel the user never opens costs nothing.
+ *
+ * Once a tab has been showing for {@link #PREWARM_DELAY_MS}, the tab after
+ * it (the next likely pick) is built too: its constructor kicks off its
+ * background data loads, so they're usually done by the time it's clicked.
+ */
+class LazyTabbedPane extends JTabbedPane {
+
+    static final int PREWARM_DELAY_MS = 400;
+
+    // null once the tab's panel has been built
+    private final List<Supplier<? extends Component>> factories = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final StartupTimeline timeline;
+    private final Timer prewarm;
+
+    LazyTabbedPane(StartupTimeline timeline) {
+        this.timeline = timeline;
+        prewarm = new Timer(PREWARM_DELAY_MS, e -> {
+            int next = getSelectedIndex() + 1;
+            if (next > 0 && next < getTabCount()) build(next, "pre-warmed");
+        });
+        prewarm.setRepeats(false);
+        addChangeListener(e -> showSelected());
+    }
+
+    /** Add a tab whose component {@code factory} creates on first use; {@code name} labels it in the timeline. */
+    void addLazyTab(String title, String name, Supplier<? extends Component> factory) {
+        factories.add(factory);
+        names.add(name);
+        JPanel holder = new JPanel(new BorderLayout());
+        holder.setBackground(new Color(18, 18, 18));
+        addTab(title, holder); // the first tab added is selected, which builds it straight away
+    }
+
+    private void showSelected() {
+        int i = getSelectedIndex();
+        if (i < 0) return;
+        build(i, "built");
+        prewarm.restart();
+    }
+
+    private void build(int i, String how) {
+        Supplier<? extends Component> factory = factories.get(i);
+        if (factory == null) return;
+        factories.set(i, null);
+        long begin = timeline.begin();
+        JPanel holder = (JPanel) getComponentAt(i);
+        holder.add(factory.get(), BorderLayout.CENTER);
+        holder.revalidate();
+        timeline.phase(names.get(i) + " tab " + how, begin);
+    }
+}
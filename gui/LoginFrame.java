@@ -2,8 +2,8 @@ package gui;
 
 import javax.swing.*;
 import java.awt.*;
-import java.sql.*;
-import db.DBConnection;
+import db.AsyncDataService;
+import db.UserRepository;
 
 public class LoginFrame extends JFrame {
     JTextField emailField, regNameField, regEmailField;
@@ -11,6 +11,9 @@ public class LoginFrame extends JFrame {
     JButton loginBtn, registerBtn;
     JPanel mainPanel;
 
+    private final UserRepository userRepository = new UserRepository();
+    private final AsyncDataService async = new AsyncDataService();
+
     public LoginFrame() {
         setTitle("🎵 Music Streaming");
         setSize(450, 350);
@@ -85,24 +88,15 @@ public class LoginFrame extends JFrame {
         String email = emailField.getText().trim();
         String password = new String(passwordField.getPassword()).trim();
 
-        try (Connection con = DBConnection.getConnection();
-             PreparedStatement ps = con.prepareStatement(
-                     "SELECT * FROM `user` WHERE Email=? AND Password=?")) {
-
-            ps.setString(1, email);
-            ps.setString(2, password);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                JOptionPane.showMessageDialog(this, "Welcome " + rs.getString("Full_Name") + "!");
+        async.submit("login", () -> userRepository.authenticate(email, password), user -> {
+            if (user != null) {
+                JOptionPane.showMessageDialog(this, "Welcome " + user.getFullName() + "!");
                // new Dashboard(rs.getString("Full_Name"));
                 dispose();
             } else {
                 JOptionPane.showMessageDialog(this, "Invalid credentials!");
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        }, Throwable::printStackTrace);
     }
 
     private void showRegistrationDialog() {
@@ -151,29 +145,17 @@ public class LoginFrame extends JFrame {
             return;
         }
 
-        try (Connection con = DBConnection.getConnection();
-             PreparedStatement psCheck = con.prepareStatement(
-                     "SELECT * FROM `user` WHERE Email=?")) {
-
-            psCheck.setString(1, email);
-            ResultSet rs = psCheck.executeQuery();
-
-            if (rs.next()) {
+        async.submit("register", () -> {
+            if (userRepository.emailExists(email)) return false;
+            userRepository.register(name, email, password, null, null);
+            return true;
+        }, created -> {
+            if (!created) {
                 JOptionPane.showMessageDialog(this, "Email already registered!");
                 return;
             }
-
-            PreparedStatement ps = con.prepareStatement(
-                    "INSERT INTO `user` (Full_Name, Email, Password) VALUES (?, ?, ?)");
-            ps.setString(1, name);
-            ps.setString(2, email);
-            ps.setString(3, password);
-            ps.executeUpdate();
-
             JOptionPane.showMessageDialog(this, "✅ Registration successful! You can now login.");
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        }, Throwable::printStackTrace);
     }
 
     public static void main(String[] args) {
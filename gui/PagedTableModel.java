@@ -0,0 +1,62 @@
+package gui;
+
+import db.PageSource;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read-only table model that holds only the pages fetched so far and asks for
+ * the next keyset page as the table is scrolled, instead of pulling the whole
+ * table into a DefaultTableModel up front.
+ */
+class PagedTableModel<T> extends AbstractTableModel {
+
+    private static final int PAGE_SIZE = 200;
+
+    private final String[] columns;
+    private final Function<T, Object[]> toRow;
+    private final List<Object[]> rows = new ArrayList<>();
+    private final KeysetPager<T> pager;
+
+    PagedTableModel(String[] columns, PageSource<T> source, ToIntFunction<T> keyOf, Function<T, Object[]> toRow) {
+        this.columns = columns;
+        this.toRow = toRow;
+        this.pager = new KeysetPager<>(source, keyOf, PAGE_SIZE, this::append);
+    }
+
+    /** Hook paging to the table's scroll pane. */
+    void attachTo(JScrollPane scroll) {
+        pager.attachTo(scroll);
+    }
+
+    void setOnError(Consumer<Throwable> onError) {
+        pager.setOnError(onError);
+    }
+
+    /** Drop loaded rows and fetch from the first page again. */
+    void reload() {
+        int n = rows.size();
+        rows.clear();
+        if (n > 0) fireTableRowsDeleted(0, n - 1);
+        pager.reset();
+    }
+
+    private void append(List<T> page) {
+        if (page.isEmpty()) return;
+        int first = rows.size();
+        for (T item : page) rows.add(toRow.apply(item));
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+
+    @Override public int getRowCount() { return rows.size(); }
+    @Override public int getColumnCount() { return columns.length; }
+    @Override public String getColumnName(int col) { return columns[col]; }
+    @Override public Object getValueAt(int row, int col) { return rows.get(row)[col]; }
+    @Override public boolean isCellEditable(int row, int col) { return false; }
+}
@@ -4,23 +4,41 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.File;
-import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
-import db.DBConnection;
+import audio.PlaybackEngine;
+import audio.PlaybackListener;
+import audio.PrerollCache;
+import db.AsyncDataService;
+import db.PlaylistRepository;
+import db.SongRepository;
+import model.Playlist;
+import model.Song;
 import model.User;
 
 public class PlaylistPanel extends JPanel {
     private User user;
     private JPanel playlistContainer;
     private JPanel songContainer;
+    private VisibleImageBinder songImages;
 
     private JButton addPlaylistBtn, editPlaylistBtn, deletePlaylistBtn, addSongBtn;
 
-    private PlaylistItem selectedPlaylist;
+    private Playlist selectedPlaylist;
+    // songs of the selected playlist, in play order
+    private final List<Song> currentSongs = new ArrayList<>();
 
-    private AudioPlayer audioPlayer = AudioPlayer.getInstance();
+    private final PlaylistRepository playlistRepository = new PlaylistRepository();
+    private final SongRepository songRepository = new SongRepository();
+    private final AsyncDataService async = new AsyncDataService();
+
+    private final PlaybackEngine player = PlaybackEngine.getInstance();
+    private final PlaybackListener progress = new PlaybackListener() {
+        @Override
+        public void positionChanged(long positionMillis, long durationMillis) {
+            showProgress(positionMillis, durationMillis);
+        }
+    };
 
     private JProgressBar progressBar;
     private JButton playBtn, pauseBtn, stopBtn;
@@ -90,6 +108,7 @@ public class PlaylistPanel extends JPanel {
                 Color.WHITE
         ));
         songScroll.getVerticalScrollBar().setUnitIncrement(16);
+        songImages = new VisibleImageBinder(songScroll);
 
         addSongBtn = createButton("➕ Add Song");
         addSongBtn.setBackground(new Color(70, 180, 180));
@@ -105,8 +124,9 @@ public class PlaylistPanel extends JPanel {
         playerPanel.setBackground(new Color(25, 25, 25));
         playerPanel.setBorder(new EmptyBorder(5, 10, 5, 10));
 
-        progressBar = new JProgressBar();
+        progressBar = new JProgressBar(0, 1000);
         progressBar.setStringPainted(true);
+        showProgress(0, -1);
         progressBar.setForeground(new Color(70, 180, 180));
         progressBar.setBackground(new Color(50, 50, 50));
         progressBar.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
@@ -122,9 +142,13 @@ public class PlaylistPanel extends JPanel {
         pauseBtn.setFont(new Font(emojiFont, Font.BOLD, 16));
         stopBtn.setFont(new Font(emojiFont, Font.BOLD, 16));
 
-        playBtn.addActionListener(e -> audioPlayer.resume());
-        pauseBtn.addActionListener(e -> audioPlayer.pause());
-        stopBtn.addActionListener(e -> audioPlayer.stop());
+        playBtn.addActionListener(e -> {
+            if (player.getState() == PlaybackEngine.State.PAUSED) player.resume();
+            else if (player.getState() == PlaybackEngine.State.IDLE
+                    || player.getState() == PlaybackEngine.State.STOPPED) playFrom(0);
+        });
+        pauseBtn.addActionListener(e -> player.pause());
+        stopBtn.addActionListener(e -> player.stop());
 
         controlPanel.add(playBtn);
         controlPanel.add(pauseBtn);
@@ -140,6 +164,37 @@ public class PlaylistPanel extends JPanel {
         loadPlaylists();
     }
 
+    // Listen to the engine only while on screen, so a closed dashboard's panel isn't kept alive
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        player.addListener(progress);
+        showProgress(player.getPositionMillis(), player.getDurationMillis());
+    }
+
+    @Override
+    public void removeNotify() {
+        player.removeListener(progress);
+        super.removeNotify();
+    }
+
+    /** Elapsed / remaining time on the progress bar. */
+    private void showProgress(long positionMillis, long durationMillis) {
+        if (durationMillis <= 0) {
+            progressBar.setValue(0);
+            progressBar.setString(formatTime(positionMillis));
+            return;
+        }
+        long position = Math.min(positionMillis, durationMillis);
+        progressBar.setValue((int) (position * 1000 / durationMillis));
+        progressBar.setString(formatTime(position) + "  /  -" + formatTime(durationMillis - position));
+    }
+
+    private static String formatTime(long millis) {
+        long seconds = millis / 1000;
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
     private JButton createButton(String text) {
         JButton btn = new JButton(text);
         btn.setBackground(new Color(70, 130, 180));
@@ -163,40 +218,34 @@ public class PlaylistPanel extends JPanel {
 
     // ===== LOAD PLAYLISTS =====
     private void loadPlaylists() {
-        playlistContainer.removeAll();
         selectedPlaylist = null;
+        async.cancel("songs");
+        songContainer.removeAll();
+        songContainer.revalidate();
+        songContainer.repaint();
 
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(
-                     "SELECT Playlist_ID, Playlist_Name FROM playlist WHERE User_ID=?")) {
-            ps.setInt(1, user.getId());
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                PlaylistItem item = new PlaylistItem(
-                        rs.getInt("Playlist_ID"),
-                        rs.getString("Playlist_Name")
-                );
+        async.submit("playlists", () -> playlistRepository.findByUser(user.getId()), playlists -> {
+            playlistContainer.removeAll();
+            for (Playlist item : playlists) {
                 JPanel card = createPlaylistCard(item);
                 playlistContainer.add(card);
             }
-        } catch (Exception e) {
+            playlistContainer.revalidate();
+            playlistContainer.repaint();
+        }, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error loading playlists: " + e.getMessage());
-        }
-
-        playlistContainer.revalidate();
-        playlistContainer.repaint();
-        songContainer.removeAll();
+        });
     }
 
-    private JPanel createPlaylistCard(PlaylistItem item) {
+    private JPanel createPlaylistCard(Playlist item) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(new Color(30, 30, 30));
         card.setMaximumSize(new Dimension(Integer.MAX_VALUE, 50));
         card.setBorder(BorderFactory.createEmptyBorder(8, 12, 8, 12));
         card.setCursor(new Cursor(Cursor.HAND_CURSOR));
 
-        JLabel label = new JLabel(item.name);
+        JLabel label = new JLabel(item.getName());
         label.setForeground(Color.WHITE);
         label.setFont(new Font(emojiFont, Font.PLAIN, 16));
 
@@ -235,7 +284,7 @@ public class PlaylistPanel extends JPanel {
             if (comp instanceof JPanel) {
                 JPanel card = (JPanel) comp;
                 JLabel lbl = (JLabel) card.getComponent(0);
-                if (selectedPlaylist != null && lbl.getText().equals(selectedPlaylist.name)) {
+                if (selectedPlaylist != null && lbl.getText().equals(selectedPlaylist.getName())) {
                     card.setBackground(new Color(70, 130, 180));
                 } else {
                     card.setBackground(new Color(30, 30, 30));
@@ -246,37 +295,42 @@ public class PlaylistPanel extends JPanel {
 
     // ===== LOAD SONGS =====
     private void loadSongs() {
+        songImages.clear();
+        currentSongs.clear();
         songContainer.removeAll();
+        songContainer.revalidate();
+        songContainer.repaint();
         if (selectedPlaylist == null) return;
 
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(
-                     "SELECT s.id, s.title, s.artist, s.genre, s.image_path, s.audio_path " +
-                             "FROM songs s JOIN playlist_songs ps ON s.id = ps.Song_ID " +
-                             "WHERE ps.Playlist_ID=?")) {
-            ps.setInt(1, selectedPlaylist.id);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                SongItem song = new SongItem(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("artist"),
-                        rs.getString("genre"),
-                        rs.getString("image_path"),
-                        rs.getString("audio_path")
-                );
+        // Re-submitting under the same key cancels the previous playlist's load
+        int playlistId = selectedPlaylist.getId();
+        async.submit("songs", () -> songRepository.findByPlaylist(playlistId), songs -> {
+            songContainer.removeAll();
+            currentSongs.clear();
+            currentSongs.addAll(songs);
+            List<String> paths = new ArrayList<>();
+            for (Song song : songs) paths.add(song.getAudioPath());
+            PrerollCache.getInstance().prefetch(paths); // these are the next things likely to be played
+            for (Song song : songs) {
                 JPanel card = createSongCard(song);
                 songContainer.add(card);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+            songContainer.revalidate();
+            songContainer.repaint();
+        }, Throwable::printStackTrace);
+    }
 
-        songContainer.revalidate();
-        songContainer.repaint();
+    /** Play the playlist from the given song on; the engine runs the queued songs together gaplessly. */
+    private void playFrom(int index) {
+        List<String> paths = new ArrayList<>();
+        for (int i = Math.max(0, index); i < currentSongs.size(); i++) {
+            String path = currentSongs.get(i).getAudioPath();
+            if (path != null && !path.isEmpty()) paths.add(path);
+        }
+        player.playAll(paths);
     }
 
-    private JPanel createSongCard(SongItem song) {
+    private JPanel createSongCard(Song song) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(new Color(40, 40, 40));
         card.setMaximumSize(new Dimension(Integer.MAX_VALUE, 70));
@@ -285,24 +339,17 @@ public class PlaylistPanel extends JPanel {
 
         JLabel albumLabel = new JLabel();
         albumLabel.setPreferredSize(new Dimension(50, 50));
-        if (song.albumArt != null && !song.albumArt.isEmpty()) {
-            File imgFile = new File(song.albumArt);
-            if (imgFile.exists()) {
-                ImageIcon icon = new ImageIcon(new ImageIcon(song.albumArt).getImage()
-                        .getScaledInstance(50, 50, Image.SCALE_SMOOTH));
-                albumLabel.setIcon(icon);
-            }
-        }
+        songImages.bind(albumLabel, song.getImagePath(), null, 50, 50);
 
-        JLabel label = new JLabel(song.title + " - " + song.artist);
+        JLabel label = new JLabel(song.getTitle() + " - " + song.getArtist());
         label.setForeground(Color.WHITE);
         label.setFont(new Font(emojiFont, Font.PLAIN, 14));
 
         JButton playBtnSong = createButton("▶");
         playBtnSong.setFont(new Font(emojiFont, Font.BOLD, 14));
         playBtnSong.addActionListener(e -> {
-            if (song.audioPath != null && !song.audioPath.isEmpty()) {
-                audioPlayer.playSong(song.audioPath);
+            if (song.getAudioPath() != null && !song.getAudioPath().isEmpty()) {
+                playFrom(currentSongs.indexOf(song));
             } else {
                 JOptionPane.showMessageDialog(this, "Audio file path is missing!");
             }
@@ -356,33 +403,18 @@ public class PlaylistPanel extends JPanel {
         String name = JOptionPane.showInputDialog(this, "Enter Playlist Name:");
         if (name == null || name.isEmpty()) return;
 
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(
-                     "INSERT INTO playlist(User_ID, Playlist_Name, Created_Date) VALUES (?, ?, CURDATE())")) {
-            ps.setInt(1, user.getId());
-            ps.setString(2, name);
-            ps.executeUpdate();
-            loadPlaylists();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        async.execute(() -> playlistRepository.create(user.getId(), name),
+                this::loadPlaylists, Throwable::printStackTrace);
     }
 
     private void editPlaylist() {
         if (selectedPlaylist == null) return;
-        String newName = JOptionPane.showInputDialog(this, "Edit Playlist Name:", selectedPlaylist.name);
+        String newName = JOptionPane.showInputDialog(this, "Edit Playlist Name:", selectedPlaylist.getName());
         if (newName == null || newName.isEmpty()) return;
 
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(
-                     "UPDATE playlist SET Playlist_Name=? WHERE Playlist_ID=?")) {
-            ps.setString(1, newName);
-            ps.setInt(2, selectedPlaylist.id);
-            ps.executeUpdate();
-            loadPlaylists();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        int playlistId = selectedPlaylist.getId();
+        async.execute(() -> playlistRepository.rename(playlistId, newName),
+                this::loadPlaylists, Throwable::printStackTrace);
     }
 
     private void deletePlaylist() {
@@ -390,55 +422,24 @@ public class PlaylistPanel extends JPanel {
         int confirm = JOptionPane.showConfirmDialog(this, "Delete this playlist?", "Confirm", JOptionPane.YES_NO_OPTION);
         if (confirm != JOptionPane.YES_OPTION) return;
 
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(
-                     "DELETE FROM playlist WHERE Playlist_ID=?")) {
-            ps.setInt(1, selectedPlaylist.id);
-            ps.executeUpdate();
-            loadPlaylists();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        int playlistId = selectedPlaylist.getId();
+        async.execute(() -> playlistRepository.delete(playlistId),
+                this::loadPlaylists, Throwable::printStackTrace);
     }
 
     // ===== SONG ACTIONS =====
     private void addSongToPlaylist() {
         if (selectedPlaylist == null) return;
 
-        try (Connection c = DBConnection.getConnection()) {
-            Statement stmt = c.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT id, title, artist, genre, image_path, audio_path FROM songs");
-            List<SongItem> allSongs = new ArrayList<>();
-            while (rs.next()) {
-                allSongs.add(new SongItem(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("artist"),
-                        rs.getString("genre"),
-                        rs.getString("image_path"),
-                        rs.getString("audio_path")
-                ));
-            }
-
-            SongItem[] songsArray = allSongs.toArray(new SongItem[0]);
-            SongItem selectedSong = (SongItem) JOptionPane.showInputDialog(
-                    this, "Select a Song", "Add Song to Playlist",
-                    JOptionPane.PLAIN_MESSAGE, null, songsArray, null);
-
-            if (selectedSong == null) return;
-
-            PreparedStatement ps = c.prepareStatement("INSERT INTO playlist_songs(Playlist_ID, Song_ID) VALUES (?, ?)");
-            ps.setInt(1, selectedPlaylist.id);
-            ps.setInt(2, selectedSong.id);
-            ps.executeUpdate();
+        int playlistId = selectedPlaylist.getId();
+        Song selectedSong = SongPicker.choose(this, "Add Song to Playlist");
+        if (selectedSong == null) return;
 
-            loadSongs();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        async.execute(() -> playlistRepository.addSong(playlistId, selectedSong.getId()),
+                this::loadSongs, Throwable::printStackTrace);
     }
 
-    private void deleteSongFromPlaylist(SongItem song) {
+    private void deleteSongFromPlaylist(Song song) {
         if (selectedPlaylist == null) return;
 
         int confirm = JOptionPane.showConfirmDialog(this,
@@ -447,55 +448,10 @@ public class PlaylistPanel extends JPanel {
                 JOptionPane.YES_NO_OPTION);
         if (confirm != JOptionPane.YES_OPTION) return;
 
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(
-                     "DELETE FROM playlist_songs WHERE Playlist_ID=? AND Song_ID=?")) {
-            ps.setInt(1, selectedPlaylist.id);
-            ps.setInt(2, song.id);
-            ps.executeUpdate();
-            loadSongs();
-        } catch (Exception e) {
+        int playlistId = selectedPlaylist.getId();
+        async.execute(() -> playlistRepository.removeSong(playlistId, song.getId()), this::loadSongs, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error deleting song: " + e.getMessage());
-        }
-    }
-
-    // ===== ITEM CLASSES =====
-    private static class PlaylistItem {
-        int id;
-        String name;
-
-        public PlaylistItem(int id, String name) {
-            this.id = id;
-            this.name = name;
-        }
-
-        @Override
-        public String toString() {
-            return name;
-        }
-    }
-
-    private static class SongItem {
-        int id;
-        String title;
-        String artist;
-        String genre;
-        String albumArt;
-        String audioPath;
-
-        public SongItem(int id, String title, String artist, String genre, String albumArt, String audioPath) {
-            this.id = id;
-            this.title = title;
-            this.artist = artist;
-            this.genre = genre;
-            this.albumArt = albumArt;
-            this.audioPath = audioPath;
-        }
-
-        @Override
-        public String toString() {
-            return title + " - " + artist;
-        }
+        });
     }
-}
+}
\ No newline at end of file
@@ -3,22 +3,31 @@ package gui;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.sql.*;
-import db.DBConnection;
+import java.util.List;
+import audio.PlaybackEngine;
+import db.AsyncDataService;
+import db.PlaylistRepository;
+import db.SongRepository;
+import model.Playlist;
+import model.Song;
 import model.User;
 
 public class PlaylistSongsDialog extends JDialog {
     private String playlistName;
     private User user;
-    private AudioPlayer audioPlayer;
+    private PlaybackEngine player;
     private DefaultListModel<String> songModel;
     private JList<String> songList;
 
-    public PlaylistSongsDialog(JFrame parent, String playlistName, User user, AudioPlayer audioPlayer) {
+    private final PlaylistRepository playlistRepository = new PlaylistRepository();
+    private final SongRepository songRepository = new SongRepository();
+    private final AsyncDataService async = new AsyncDataService();
+
+    public PlaylistSongsDialog(JFrame parent, String playlistName, User user, PlaybackEngine player) {
         super(parent, "🎵 " + playlistName, true);
         this.playlistName = playlistName;
         this.user = user;
-        this.audioPlayer = audioPlayer;
+        this.player = player;
 
         setSize(600, 400);
         setLocationRelativeTo(parent);
@@ -74,57 +83,24 @@ public class PlaylistSongsDialog extends JDialog {
 
     /** Load all songs in this playlist */
     private void loadSongs() {
-        songModel.clear();
-        String query = "SELECT s.title " +
-                       "FROM playlist_songs ps " +
-                       "JOIN songs s ON ps.Song_ID = s.id " +
-                       "JOIN playlist p ON ps.Playlist_ID = p.Playlist_ID " +
-                       "WHERE p.Playlist_Name=? AND p.User_ID=?";
-        try (Connection con = DBConnection.getConnection();
-             PreparedStatement ps = con.prepareStatement(query)) {
-            ps.setString(1, playlistName);
-            ps.setInt(2, user.getId());
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) songModel.addElement(rs.getString("title"));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        async.submit("songs", () -> {
+            Playlist playlist = playlistRepository.findByName(user.getId(), playlistName);
+            return playlist == null ? List.<Song>of() : songRepository.findByPlaylist(playlist.getId());
+        }, songs -> {
+            songModel.clear();
+            for (Song s : songs) songModel.addElement(s.getTitle());
+        }, Throwable::printStackTrace);
     }
 
-    /** Add a song to playlist */
+    /** Add a song to playlist, found by a spelling-tolerant title search */
     private void addSong() {
-        String songName = JOptionPane.showInputDialog(this, "Enter Song Title to Add:");
-        if (songName == null || songName.trim().isEmpty()) return;
-
-        try (Connection con = DBConnection.getConnection()) {
-            // Get Song ID
-            PreparedStatement getSong = con.prepareStatement("SELECT id FROM songs WHERE title=?");
-            getSong.setString(1, songName);
-            ResultSet rs = getSong.executeQuery();
-            if (!rs.next()) {
-                JOptionPane.showMessageDialog(this, "Song not found!");
-                return;
-            }
-            int songId = rs.getInt("id");
-
-            // Get Playlist ID
-            PreparedStatement getPlaylist = con.prepareStatement("SELECT Playlist_ID FROM playlist WHERE Playlist_Name=? AND User_ID=?");
-            getPlaylist.setString(1, playlistName);
-            getPlaylist.setInt(2, user.getId());
-            ResultSet rs2 = getPlaylist.executeQuery();
-
-            if (rs2.next()) {
-                int playlistId = rs2.getInt("Playlist_ID");
-                PreparedStatement add = con.prepareStatement("INSERT INTO playlist_songs (Playlist_ID, Song_ID) VALUES (?, ?)");
-                add.setInt(1, playlistId);
-                add.setInt(2, songId);
-                add.executeUpdate();
-                loadSongs();
-            }
+        Song song = SongPicker.choose(this, "Add Song to " + playlistName);
+        if (song == null) return;
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        async.execute(() -> {
+            Playlist playlist = playlistRepository.findByName(user.getId(), playlistName);
+            if (playlist != null) playlistRepository.addSong(playlist.getId(), song.getId());
+        }, this::loadSongs, Throwable::printStackTrace);
     }
 
     /** Remove selected song from playlist */
@@ -132,34 +108,18 @@ public class PlaylistSongsDialog extends JDialog {
         String selected = songList.getSelectedValue();
         if (selected == null) return;
 
-        String query = "DELETE ps FROM playlist_songs ps " +
-                       "JOIN songs s ON ps.Song_ID = s.id " +
-                       "JOIN playlist p ON ps.Playlist_ID = p.Playlist_ID " +
-                       "WHERE s.title=? AND p.Playlist_Name=? AND p.User_ID=?";
-        try (Connection con = DBConnection.getConnection();
-             PreparedStatement ps = con.prepareStatement(query)) {
-            ps.setString(1, selected);
-            ps.setString(2, playlistName);
-            ps.setInt(3, user.getId());
-            ps.executeUpdate();
-            loadSongs();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        async.execute(() -> {
+            Song song = songRepository.findByTitle(selected);
+            Playlist playlist = playlistRepository.findByName(user.getId(), playlistName);
+            if (song == null || playlist == null) return;
+            playlistRepository.removeSong(playlist.getId(), song.getId());
+        }, this::loadSongs, Throwable::printStackTrace);
     }
 
     /** Play selected song */
     private void playSong(String songName) {
-        try (Connection con = DBConnection.getConnection();
-             PreparedStatement ps = con.prepareStatement("SELECT audio_path FROM songs WHERE title=?")) {
-            ps.setString(1, songName);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                String path = rs.getString("audio_path");
-                audioPlayer.playSong(path);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        async.submit("play", () -> songRepository.findByTitle(songName), song -> {
+            if (song != null) player.play(song.getAudioPath());
+        }, Throwable::printStackTrace);
     }
 }
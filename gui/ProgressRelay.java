@@ -0,0 +1,48 @@
+package gui;
+
+import javax.swing.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Progress reported from worker threads, shown on a progress bar with at
+ * most one update queued on the EDT at a time. Calls that arrive while one
+ * is queued only replace the values it will show, so a scan of thousands of
+ * files doesn't post thousands of events.
+ */
+final class ProgressRelay {
+
+    private final JProgressBar bar;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    // latest values; guarded by this
+    private String text;
+    private int done;
+    private int total;
+
+    ProgressRelay(JProgressBar bar) {
+        this.bar = bar;
+    }
+
+    /** Callable from any thread. */
+    void update(String text, int done, int total) {
+        synchronized (this) {
+            this.text = text;
+            this.done = done;
+            this.total = total;
+        }
+        if (pending.compareAndSet(false, true)) SwingUtilities.invokeLater(this::show);
+    }
+
+    private void show() {
+        pending.set(false);
+        String t;
+        int d, n;
+        synchronized (this) {
+            t = text;
+            d = done;
+            n = total;
+        }
+        bar.setMaximum(n);
+        bar.setValue(d);
+        bar.setString(t);
+    }
+}
@@ -0,0 +1,316 @@
+package gui;
+
+import audio.PrerollCache;
+import model.Song;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Virtualized 4-column song grid for SongsPanel.
+ *
+ * Unlike a GridLayout of card panels, this holds no child component per song:
+ * one card renderer is configured and stamped for each visible cell during
+ * paint (the same trick JList/JTable use), and clicks are hit-tested against
+ * the cell geometry. Component count and layout cost stay constant however
+ * many songs are loaded.
+ *
+ * The songs on screen, and the one under the mouse, are handed to the
+ * {@link PrerollCache} so a click starts playing without a decode delay.
+ */
+class SongGrid extends JComponent implements Scrollable {
+
+    interface Listener {
+        void songClicked(Song song);
+        void stopClicked(Song song);
+    }
+
+    private static final int COLUMNS = 4;
+    private static final int GAP = 20;
+    private static final int PADDING = 20;
+    private static final int CELL_HEIGHT = 250;
+    private static final int IMAGE_SIZE = 150;
+
+    private final List<Song> songs = new ArrayList<>();
+    private final Listener listener;
+    private final CardRenderer renderer = new CardRenderer();
+    private final CellRendererPane rendererPane = new CellRendererPane();
+    private int hoverIndex = -1;
+    // image path -> queued background decode
+    private final Map<String, ImageLoader.Ticket> decoding = new HashMap<>();
+    // visible index range last handed to the pre-roll cache
+    private int prerolledFrom = -1;
+    private int prerolledTo = -1;
+
+    SongGrid(Listener listener) {
+        this.listener = listener;
+        setOpaque(true);
+        setBackground(new Color(18, 18, 18));
+        add(rendererPane);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = indexAt(e.getPoint());
+                if (index < 0) return;
+                Song song = songs.get(index);
+                if (isOnStopButton(index, e.getPoint())) {
+                    listener.stopClicked(song);
+                } else {
+                    listener.songClicked(song);
+                }
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                int index = indexAt(e.getPoint());
+                if (index != hoverIndex) {
+                    repaintCell(hoverIndex);
+                    hoverIndex = index;
+                    repaintCell(hoverIndex);
+                    if (index >= 0) PrerollCache.getInstance().prefetch(songs.get(index).getAudioPath());
+                    setCursor(index >= 0 ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+                }
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                repaintCell(hoverIndex);
+                hoverIndex = -1;
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    // ===== DATA =====
+
+    void addSongs(List<Song> more) {
+        if (more.isEmpty()) return;
+        songs.addAll(more);
+        revalidate();
+        repaint();
+    }
+
+    void clear() {
+        songs.clear();
+        for (ImageLoader.Ticket t : decoding.values()) t.cancel();
+        decoding.clear();
+        hoverIndex = -1;
+        prerolledFrom = prerolledTo = -1;
+        revalidate();
+        repaint();
+    }
+
+    // ===== GEOMETRY =====
+
+    private int cellWidth() {
+        return Math.max(1, (getWidth() - 2 * PADDING - (COLUMNS - 1) * GAP) / COLUMNS);
+    }
+
+    private int rowCount() {
+        return (songs.size() + COLUMNS - 1) / COLUMNS;
+    }
+
+    private Rectangle cellBounds(int index) {
+        int row = index / COLUMNS;
+        int col = index % COLUMNS;
+        int w = cellWidth();
+        return new Rectangle(PADDING + col * (w + GAP), PADDING + row * (CELL_HEIGHT + GAP), w, CELL_HEIGHT);
+    }
+
+    private int indexAt(Point p) {
+        int w = cellWidth();
+        int col = (p.x - PADDING) / (w + GAP);
+        int row = (p.y - PADDING) / (CELL_HEIGHT + GAP);
+        if (p.x < PADDING || p.y < PADDING || col >= COLUMNS) return -1;
+        int index = row * COLUMNS + col;
+        if (index >= songs.size() || !cellBounds(index).contains(p)) return -1;
+        return index;
+    }
+
+    private boolean isOnStopButton(int index, Point p) {
+        Rectangle cell = cellBounds(index);
+        renderer.configure(songs.get(index), false);
+        renderer.setBounds(0, 0, cell.width, cell.height);
+        // lay out directly: validate() is a no-op while the renderer has no peer
+        renderer.doLayout();
+        renderer.infoPanel.doLayout();
+        Component hit = SwingUtilities.getDeepestComponentAt(renderer, p.x - cell.x, p.y - cell.y);
+        return hit == renderer.stopButton;
+    }
+
+    private void repaintCell(int index) {
+        if (index >= 0 && index < songs.size()) repaint(cellBounds(index));
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int rows = rowCount();
+        int height = rows == 0 ? 0 : 2 * PADDING + rows * CELL_HEIGHT + (rows - 1) * GAP;
+        return new Dimension(COLUMNS * (IMAGE_SIZE + 10) + (COLUMNS - 1) * GAP + 2 * PADDING, height);
+    }
+
+    // ===== PAINT =====
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        Rectangle clip = g.getClipBounds();
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (songs.isEmpty()) return;
+
+        // Only rows intersecting the clip are configured and painted
+        int rowStride = CELL_HEIGHT + GAP;
+        int firstRow = Math.max(0, (clip.y - PADDING) / rowStride);
+        int lastRow = Math.min(rowCount() - 1, (clip.y + clip.height - PADDING) / rowStride);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = 0; col < COLUMNS; col++) {
+                int index = row * COLUMNS + col;
+                if (index >= songs.size()) break;
+                Rectangle cell = cellBounds(index);
+                if (!cell.intersects(clip)) continue;
+                renderer.configure(songs.get(index), index == hoverIndex);
+                rendererPane.paintComponent(g, renderer, this, cell.x, cell.y, cell.width, cell.height, true);
+            }
+        }
+        Rectangle visible = getVisibleRect();
+        int from = Math.max(0, (visible.y - PADDING) / rowStride) * COLUMNS;
+        int to = Math.min(songs.size(), ((visible.y + visible.height - PADDING) / rowStride + 1) * COLUMNS);
+        cancelOffscreenDecodes(from, to);
+        prerollVisible(from, to);
+    }
+
+    /** Cached art, or a placeholder while a background decode is queued for it. */
+    private ImageIcon imageFor(Song song) {
+        String path = song.getImagePath();
+        ImageCache cache = ImageCache.getInstance();
+        ImageIcon icon = cache.getIfPresent(path, IMAGE_SIZE, IMAGE_SIZE);
+        if (icon != null || cache.isMissing(path, IMAGE_SIZE, IMAGE_SIZE)) return icon;
+        if (!decoding.containsKey(path)) {
+            decoding.put(path, ImageLoader.getInstance().request(path, IMAGE_SIZE, IMAGE_SIZE, loaded -> {
+                decoding.remove(path);
+                repaint();
+            }));
+        }
+        return BufferedImagePlaceholder.loading(IMAGE_SIZE, IMAGE_SIZE);
+    }
+
+    /** Drop queued decodes for art no longer on screen; fast scrolls would otherwise queue every cover passed. */
+    private void cancelOffscreenDecodes(int from, int to) {
+        if (decoding.isEmpty()) return;
+        Set<String> onScreen = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            onScreen.add(songs.get(i).getImagePath());
+        }
+        Iterator<Map.Entry<String, ImageLoader.Ticket>> it = decoding.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, ImageLoader.Ticket> e = it.next();
+            if (!onScreen.contains(e.getKey())) {
+                e.getValue().cancel();
+                it.remove();
+            }
+        }
+    }
+
+    /** Pre-roll the songs in [from, to) whenever the visible range changes; the newest range is served first. */
+    private void prerollVisible(int from, int to) {
+        if (from == prerolledFrom && to == prerolledTo) return;
+        prerolledFrom = from;
+        prerolledTo = to;
+        List<String> paths = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            paths.add(songs.get(i).getAudioPath());
+        }
+        PrerollCache.getInstance().prefetch(paths);
+    }
+
+    // ===== SCROLLABLE =====
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return 16;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    // ===== CARD RENDERER =====
+
+    /** The one card that gets re-configured and stamped for every visible cell. */
+    private class CardRenderer extends JPanel {
+        final JLabel imageLabel = new JLabel();
+        final JLabel title = new JLabel();
+        final JLabel artist = new JLabel();
+        final JButton stopButton = new JButton("\u23F9 Stop"); // ⏹ Stop
+        final JPanel infoPanel = new JPanel();
+
+        CardRenderer() {
+            super(new BorderLayout());
+            setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+            imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            add(imageLabel, BorderLayout.CENTER);
+
+            infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
+
+            title.setForeground(Color.WHITE);
+            title.setFont(new Font("Segoe UI Emoji", Font.BOLD, 16));
+            title.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+            artist.setForeground(Color.LIGHT_GRAY);
+            artist.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 14));
+            artist.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+            stopButton.setBackground(new Color(50, 50, 50));
+            stopButton.setForeground(Color.WHITE);
+            stopButton.setFocusPainted(false);
+            stopButton.setFont(new Font("Segoe UI Emoji", Font.BOLD, 14));
+            stopButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+            infoPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+            infoPanel.add(title);
+            infoPanel.add(artist);
+            infoPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+            infoPanel.add(stopButton);
+            infoPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+            add(infoPanel, BorderLayout.SOUTH);
+        }
+
+        void configure(Song song, boolean hover) {
+            Color bg = hover ? new Color(45, 45, 45) : new Color(30, 30, 30);
+            setBackground(bg);
+            infoPanel.setBackground(bg);
+            imageLabel.setIcon(imageFor(song));
+            title.setText(song.getTitle());
+            artist.setText(song.getArtist());
+        }
+
+        // Renderer is never actually in a visible hierarchy; skip needless invalidation work
+        @Override public void repaint(long tm, int x, int y, int width, int height) {}
+        @Override public void repaint(Rectangle r) {}
+        @Override public void repaint() {}
+    }
+}
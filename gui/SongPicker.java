@@ -0,0 +1,118 @@
+package gui;
+
+import catalog.SongCatalog;
+import db.AsyncDataService;
+import model.Song;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * Modal search-as-you-type song chooser: each keystroke re-queries the
+ * catalog (word-prefix matches, then spelling-tolerant title matches) and
+ * shows the top results. Enter or double-click picks the highlighted song.
+ */
+class SongPicker extends JDialog {
+
+    static final int RESULT_LIMIT = 50;
+
+    private final JTextField query = new JTextField();
+    private final DefaultListModel<Song> results = new DefaultListModel<>();
+    private final JList<Song> list = new JList<>(results);
+    private final JLabel status = new JLabel(" ");
+    private final AsyncDataService async = new AsyncDataService();
+    private Song chosen;
+
+    private SongPicker(Window owner, String title) {
+        super(owner, title, ModalityType.APPLICATION_MODAL);
+        setSize(480, 420);
+        setLocationRelativeTo(owner);
+        setLayout(new BorderLayout(5, 5));
+        getContentPane().setBackground(new Color(18, 18, 18));
+
+        query.setFont(new Font("Segoe UI", Font.PLAIN, 15));
+        query.setBackground(new Color(40, 40, 40));
+        query.setForeground(Color.WHITE);
+        query.setCaretColor(Color.WHITE);
+        query.setBorder(BorderFactory.createEmptyBorder(8, 10, 8, 10));
+        query.setToolTipText("Title, artist or genre");
+        add(query, BorderLayout.NORTH);
+
+        list.setBackground(new Color(28, 28, 28));
+        list.setForeground(Color.WHITE);
+        list.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        list.setSelectionBackground(new Color(30, 215, 96));
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JScrollPane scroll = new JScrollPane(list);
+        scroll.setBorder(null);
+        add(scroll, BorderLayout.CENTER);
+
+        status.setForeground(Color.GRAY);
+        status.setBorder(BorderFactory.createEmptyBorder(4, 10, 6, 10));
+        add(status, BorderLayout.SOUTH);
+
+        query.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { refresh(); }
+            public void removeUpdate(DocumentEvent e) { refresh(); }
+            public void changedUpdate(DocumentEvent e) { refresh(); }
+        });
+        // arrows move through the results without leaving the text field
+        query.addKeyListener(new KeyAdapter() {
+            public void keyPressed(KeyEvent e) {
+                int i = list.getSelectedIndex();
+                if (e.getKeyCode() == KeyEvent.VK_DOWN && i < results.size() - 1) select(i + 1);
+                else if (e.getKeyCode() == KeyEvent.VK_UP && i > 0) select(i - 1);
+            }
+        });
+        query.addActionListener(e -> pick(list.getSelectedValue()));
+        list.addMouseListener(new MouseAdapter() {
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) pick(list.getSelectedValue());
+            }
+        });
+        getRootPane().registerKeyboardAction(e -> dispose(),
+                KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), JComponent.WHEN_IN_FOCUSED_WINDOW);
+    }
+
+    /** Show the picker and block until the user picks a song (or null if cancelled). */
+    static Song choose(Component parent, String title) {
+        SongPicker picker = new SongPicker(SwingUtilities.getWindowAncestor(parent), title);
+        picker.setVisible(true);
+        return picker.chosen;
+    }
+
+    private void refresh() {
+        String q = query.getText();
+        if (q.trim().isEmpty()) {
+            async.cancel("search");
+            results.clear();
+            status.setText(" ");
+            return;
+        }
+        // the first search may have to load the catalog; after that it's an index lookup
+        async.submit("search", () -> SongCatalog.getInstance().find(q, RESULT_LIMIT), songs -> {
+            results.clear();
+            for (Song s : songs) results.addElement(s);
+            if (!songs.isEmpty()) select(0);
+            status.setText(songs.isEmpty() ? "No matches"
+                    : songs.size() == RESULT_LIMIT ? "Top " + RESULT_LIMIT + " matches" : songs.size() + " matches");
+        }, e -> status.setText("Search failed: " + e.getMessage()));
+    }
+
+    private void select(int i) {
+        list.setSelectedIndex(i);
+        list.ensureIndexIsVisible(i);
+    }
+
+    private void pick(Song song) {
+        if (song == null) return;
+        chosen = song;
+        dispose();
+    }
+}
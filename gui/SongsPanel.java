@@ -1,129 +1,110 @@
 package gui;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
-import java.awt.event.*;
-import java.util.List;
+import audio.PlaybackEngine;
+import catalog.SongCatalog;
+import db.AsyncDataService;
+import db.PageSource;
 import model.Song;
 import java.io.File;
-import javafx.embed.swing.JFXPanel;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 
 public class SongsPanel extends JPanel {
 
-    private MediaPlayer mediaPlayer; // Current playing media
+    private final PlaybackEngine player = PlaybackEngine.getInstance();
+    private final SongGrid grid;
+    private final KeysetPager<Song> pager;
+    private final JTextField searchField = new JTextField(24);
+    private final AsyncDataService async = new AsyncDataService();
 
-    public SongsPanel(List<Song> songs) {
+    private static final int PAGE_SIZE = 48;
+    private static final int SEARCH_LIMIT = 200;
+
+    public SongsPanel(PageSource<Song> songs) {
         setLayout(new BorderLayout());
         setBackground(new Color(18, 18, 18));
 
-        // Initialize JavaFX runtime
-        new JFXPanel();
-
         // Header label
         JLabel titleLabel = new JLabel("\uD83C\uDFB5 Songs"); // 🎵 Songs
         titleLabel.setForeground(Color.WHITE);
         titleLabel.setFont(new Font("Segoe UI Emoji", Font.BOLD, 22));
         titleLabel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
-        add(titleLabel, BorderLayout.NORTH);
 
-        // Grid panel for songs
-        JPanel gridPanel = new JPanel(new GridLayout(0, 4, 20, 20));
-        gridPanel.setBackground(new Color(18, 18, 18));
-        gridPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        // Search as you type; clearing the box goes back to browsing the whole catalog
+        searchField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        searchField.setBackground(new Color(40, 40, 40));
+        searchField.setForeground(Color.WHITE);
+        searchField.setCaretColor(Color.WHITE);
+        searchField.setBorder(BorderFactory.createEmptyBorder(6, 10, 6, 10));
+        searchField.setToolTipText("Search by title, artist or genre");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { search(); }
+            public void removeUpdate(DocumentEvent e) { search(); }
+            public void changedUpdate(DocumentEvent e) { search(); }
+        });
+        JPanel searchBox = new JPanel(new FlowLayout(FlowLayout.RIGHT, 20, 10));
+        searchBox.setOpaque(false);
+        searchBox.add(searchField);
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.setOpaque(false);
+        header.add(titleLabel, BorderLayout.WEST);
+        header.add(searchBox, BorderLayout.EAST);
+        add(header, BorderLayout.NORTH);
+
+        // Virtualized grid: only the visible cards are ever laid out and painted
+        grid = new SongGrid(new SongGrid.Listener() {
+            public void songClicked(Song song) {
+                playSong(song);
+            }
 
-        // Add song cards
-        for (Song s : songs) {
-            JPanel card = createSongCard(s);
-            gridPanel.add(card);
-        }
+            public void stopClicked(Song song) {
+                player.stop();
+            }
+        });
 
-        JScrollPane scroll = new JScrollPane(gridPanel);
+        JScrollPane scroll = new JScrollPane(grid);
         scroll.setBorder(null);
-        scroll.getVerticalScrollBar().setUnitIncrement(16);
+        scroll.getViewport().setBackground(new Color(18, 18, 18));
         add(scroll, BorderLayout.CENTER);
+
+        // Songs are appended a page at a time as the user scrolls
+        pager = new KeysetPager<>(songs, Song::getId, PAGE_SIZE, grid::addSongs);
+        pager.attachTo(scroll);
+        pager.loadNext();
     }
 
-    private JPanel createSongCard(Song song) {
-        JPanel card = new JPanel(new BorderLayout());
-        card.setBackground(new Color(30, 30, 30));
-        card.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-
-        // Song image
-        try {
-            ImageIcon icon = new ImageIcon(song.getImagePath());
-            Image img = icon.getImage().getScaledInstance(150, 150, Image.SCALE_SMOOTH);
-            JLabel imageLabel = new JLabel(new ImageIcon(img));
-            imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
-            card.add(imageLabel, BorderLayout.CENTER);
-        } catch (Exception e) {
-            e.printStackTrace();
+    /** Clear the grid and start again from the first page (or re-run the current search). */
+    public void reload() {
+        if (!searchField.getText().trim().isEmpty()) {
+            search();
+            return;
         }
-
-        // Song info panel
-        JPanel infoPanel = new JPanel();
-        infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
-        infoPanel.setBackground(new Color(30, 30, 30));
-
-        JLabel title = new JLabel(song.getTitle());
-        title.setForeground(Color.WHITE);
-        title.setFont(new Font("Segoe UI Emoji", Font.BOLD, 16));
-        title.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-        JLabel artist = new JLabel(song.getArtist());
-        artist.setForeground(Color.LIGHT_GRAY);
-        artist.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 14));
-        artist.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-        JButton stopButton = new JButton("\u23F9 Stop"); // ⏹ Stop
-        styleButton(stopButton, new Color(50, 50, 50));
-        stopButton.setAlignmentX(Component.CENTER_ALIGNMENT);
-        stopButton.addActionListener(e -> {
-            if (mediaPlayer != null) mediaPlayer.stop();
-        });
-
-        infoPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-        infoPanel.add(title);
-        infoPanel.add(artist);
-        infoPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-        infoPanel.add(stopButton);
-        infoPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-
-        card.add(infoPanel, BorderLayout.SOUTH);
-
-        // Click card to play song
-        card.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-        card.addMouseListener(new MouseAdapter() {
-            public void mouseClicked(MouseEvent e) {
-                playSong(song);
-            }
-        });
-
-        return card;
+        grid.clear();
+        pager.reset();
     }
 
-    private void playSong(Song song) {
-        if (mediaPlayer != null) mediaPlayer.stop();
-        try {
-            File audioFile = new File(song.getAudioPath());
-            if (!audioFile.exists()) return;
-            Media media = new Media(audioFile.toURI().toString());
-            mediaPlayer = new MediaPlayer(media);
-            mediaPlayer.play();
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void search() {
+        String q = searchField.getText();
+        if (q.trim().isEmpty()) {
+            async.cancel("search");
+            grid.clear();
+            pager.reset();
+            return;
         }
+        pager.suspend();
+        async.submit("search", () -> SongCatalog.getInstance().find(q, SEARCH_LIMIT), songs -> {
+            grid.clear();
+            grid.addSongs(songs);
+        }, Throwable::printStackTrace);
     }
 
-    private void styleButton(JButton btn, Color color) {
-        btn.setBackground(color);
-        btn.setForeground(Color.WHITE);
-        btn.setFocusPainted(false);
-        btn.setFont(new Font("Segoe UI Emoji", Font.BOLD, 14));
-        btn.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+    private void playSong(Song song) {
+        File audioFile = new File(song.getAudioPath());
+        if (!audioFile.exists()) return;
+        player.play(song.getAudioPath());
     }
 
-    
-
 }
@@ -0,0 +1,193 @@
+package gui;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * On-disk store of pre-scaled art at the three sizes the UI actually draws:
+ * 50px (playlist rows), 150px (song grid) and 200px (artist cards).
+ *
+ * Each source image gets a directory named after a hash of its absolute path,
+ * holding {@code <mtime>_<size>.jpg} files. A thumbnail only counts if its
+ * mtime matches the source's current one, so replacing a cover on disk is
+ * picked up on the next lookup and the stale files are swept when the new
+ * ones are written. After the first launch the grids read these small JPEGs
+ * and never decode the full-size originals again.
+ *
+ * Images that aren't plain files (e.g. art inside a jar) are not stored.
+ */
+class ThumbnailStore {
+
+    static final int[] SIZES = {50, 150, 200};
+
+    private static final float JPEG_QUALITY = 0.9f;
+
+    private static final ThumbnailStore INSTANCE = new ThumbnailStore(
+            new File(System.getProperty("user.home"), ".musicstreaming" + File.separator + "thumbnails"));
+
+    private final File root;
+    // separate from the UI decode pool so a big pre-generation can't starve visible cards
+    private final ForkJoinPool generators = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    ThumbnailStore(File root) {
+        this.root = root;
+    }
+
+    static ThumbnailStore getInstance() {
+        return INSTANCE;
+    }
+
+    static boolean isStoredSize(int w, int h) {
+        if (w != h) return false;
+        for (int s : SIZES) if (s == w) return true;
+        return false;
+    }
+
+    // ===== READ =====
+
+    /** The stored thumbnail of {@code path} at size x size, or null if there isn't a fresh one. */
+    BufferedImage load(String path, int size) {
+        File source = sourceFile(path);
+        if (source == null) return null;
+        File thumb = thumbFile(source, size);
+        if (!thumb.isFile()) return null;
+        try {
+            return ImageIO.read(thumb);
+        } catch (IOException e) {
+            // truncated or corrupt: drop it and let the caller regenerate
+            thumb.delete();
+            return null;
+        }
+    }
+
+    // ===== WRITE =====
+
+    /** Write every stored size of an already-decoded original. Runs on the caller's thread. */
+    void save(String path, BufferedImage original) {
+        File source = sourceFile(path);
+        if (source == null || original == null) return;
+        File dir = dirFor(source);
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+
+        String current = source.lastModified() + "_";
+        File[] existing = dir.listFiles();
+        if (existing != null) {
+            for (File f : existing) {
+                if (f.getName().endsWith(".jpg") && !f.getName().startsWith(current)) f.delete();
+            }
+        }
+        for (int size : SIZES) {
+            File thumb = thumbFile(source, size);
+            if (thumb.isFile()) continue;
+            try {
+                writeAtomically(ImageCache.scale(original, size, size), thumb);
+            } catch (IOException e) {
+                System.err.println("Thumbnail store: could not write " + thumb + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Decode {@code path} and write all sizes, unless they are already fresh. */
+    void generate(String path) {
+        File source = sourceFile(path);
+        if (source == null || isFresh(source)) return;
+        try {
+            save(path, ImageIO.read(source));
+        } catch (IOException e) {
+            System.err.println("Thumbnail store: could not read " + source + ": " + e.getMessage());
+        }
+    }
+
+    /** Generate thumbnails for many images in parallel, e.g. after an import. Blocks until done. */
+    void generateAll(Collection<String> paths) {
+        Set<String> unique = new LinkedHashSet<>(paths);
+        unique.remove(null);
+        generators.submit(() -> unique.parallelStream().forEach(this::generate)).join();
+    }
+
+    private boolean isFresh(File source) {
+        for (int size : SIZES) {
+            if (!thumbFile(source, size).isFile()) return false;
+        }
+        return true;
+    }
+
+    private static void writeAtomically(BufferedImage img, File target) throws IOException {
+        // JPEG has no alpha; flatten onto the app's card background
+        BufferedImage rgb = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.setColor(new Color(30, 30, 30));
+        g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+        g.drawImage(img, 0, 0, null);
+        g.dispose();
+
+        File tmp = File.createTempFile("thumb", ".tmp", target.getParentFile());
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp)) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.write(null, new IIOImage(rgb, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            // readers only ever see a missing or a complete thumbnail
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    // ===== PATHS =====
+
+    private File thumbFile(File source, int size) {
+        return new File(dirFor(source), source.lastModified() + "_" + size + ".jpg");
+    }
+
+    private File dirFor(File source) {
+        return new File(root, sha1(source.getAbsolutePath()));
+    }
+
+    /** Same resolution order as ImageCache: classpath resource, then file. Null if not a local file. */
+    static File sourceFile(String path) {
+        if (path == null || path.isEmpty()) return null;
+        try {
+            URL res = ThumbnailStore.class.getClassLoader().getResource(path);
+            if (res != null) return "file".equals(res.getProtocol()) ? new File(res.toURI()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+        File f = new File(path);
+        return f.isFile() ? f : null;
+    }
+
+    private static String sha1(String s) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fills image labels inside one scroll pane asynchronously through
+ * {@link ImageLoader}, but only for labels in (or just below) the viewport.
+ *
+ * A bound label shows a placeholder straight away. As the user scrolls,
+ * labels that come into view are queued and labels that leave it have their
+ * pending decode cancelled, so fast scrolling through a long grid never
+ * backs the decoder up with art nobody is looking at.
+ */
+class VisibleImageBinder {
+
+    private final JScrollPane scroll;
+    private final ImageLoader loader = ImageLoader.getInstance();
+    private final ImageCache cache = ImageCache.getInstance();
+    private final Map<JLabel, Binding> bindings = new LinkedHashMap<>();
+    private boolean updateQueued;
+
+    VisibleImageBinder(JScrollPane scroll) {
+        this.scroll = scroll;
+        scroll.getViewport().addChangeListener(e -> update());
+        scroll.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) update();
+        });
+    }
+
+    /** Show {@code path} (or {@code fallback} if it can't be loaded) in the label once it's in view. */
+    void bind(JLabel label, String path, String fallback, int w, int h) {
+        Binding old = bindings.remove(label);
+        if (old != null) old.cancel();
+
+        ImageIcon cached = cache.getIfPresent(path, w, h);
+        if (cached == null && cache.isMissing(path, w, h)) {
+            path = fallback;
+            fallback = null;
+            cached = cache.getIfPresent(path, w, h);
+        }
+        if (cached != null) {
+            label.setIcon(cached);
+            return;
+        }
+        if (cache.isMissing(path, w, h)) {
+            label.setIcon(null);
+            return;
+        }
+
+        label.setIcon(BufferedImagePlaceholder.loading(w, h));
+        bindings.put(label, new Binding(label, path, fallback, w, h));
+        scheduleUpdate();
+    }
+
+    /** Cancel everything still pending, e.g. before the grid is rebuilt. */
+    void clear() {
+        for (Binding b : bindings.values()) b.cancel();
+        bindings.clear();
+    }
+
+    private void scheduleUpdate() {
+        if (updateQueued) return;
+        updateQueued = true;
+        SwingUtilities.invokeLater(() -> {
+            updateQueued = false;
+            update();
+        });
+    }
+
+    private void update() {
+        if (bindings.isEmpty()) return;
+        JViewport viewport = scroll.getViewport();
+        Component view = viewport.getView();
+        if (view == null) return;
+        if (!scroll.isShowing()) {
+            // hidden or detached: nothing is in view, and Swing won't lay it out until it shows,
+            // at which point the hierarchy listener runs this again
+            for (Binding b : bindings.values()) b.cancel();
+            return;
+        }
+        if (!view.isValid()) {
+            // labels have no bounds until the pending layout runs
+            scheduleUpdate();
+            return;
+        }
+
+        // look half a screen ahead so cards are usually ready as they scroll in
+        Rectangle visible = viewport.getViewRect();
+        visible.grow(0, visible.height / 2);
+
+        for (Binding b : bindings.values()) {
+            boolean inView = b.label.getParent() != null
+                    && SwingUtilities.convertRectangle(b.label.getParent(), b.label.getBounds(), view).intersects(visible);
+            if (inView && b.ticket == null) {
+                b.ticket = loader.request(b.path, b.w, b.h, icon -> loaded(b, icon));
+            } else if (!inView && b.ticket != null) {
+                b.cancel();
+            }
+        }
+    }
+
+    private void loaded(Binding b, ImageIcon icon) {
+        if (bindings.get(b.label) != b) return;
+        b.ticket = null;
+        if (icon == null && b.fallback != null) {
+            b.path = b.fallback;
+            b.fallback = null;
+            scheduleUpdate();
+            return;
+        }
+        bindings.remove(b.label);
+        b.label.setIcon(icon);
+    }
+
+    private static class Binding {
+        final JLabel label;
+        final int w;
+        final int h;
+        String path;
+        String fallback;
+        ImageLoader.Ticket ticket;
+
+        Binding(JLabel label, String path, String fallback, int w, int h) {
+            this.label = label;
+            this.path = path;
+            this.fallback = fallback;
+            this.w = w;
+            this.h = h;
+        }
+
+        void cancel() {
+            if (ticket != null) ticket.cancel();
+            ticket = null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package model;
+
+/**
+ * Technical facts about a song's audio file, read from the file itself at
+ * ingest. File length and mtime say which version of the file they describe.
+ */
+public class AudioInfo {
+    private int songId;
+    private long durationMillis;
+    private int bitrateKbps;
+    private boolean variableBitrate;
+    private int sampleRate;
+    private int channels;
+    private long fileLength;
+    private long lastModified;
+
+    public AudioInfo(int songId, long durationMillis, int bitrateKbps, boolean variableBitrate,
+                     int sampleRate, int channels, long fileLength, long lastModified) {
+        this.songId = songId;
+        this.durationMillis = durationMillis;
+        this.bitrateKbps = bitrateKbps;
+        this.variableBitrate = variableBitrate;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+    }
+
+    public int getSongId() { return songId; }
+    public long getDurationMillis() { return durationMillis; }
+    public int getBitrateKbps() { return bitrateKbps; }
+    public boolean isVariableBitrate() { return variableBitrate; }
+    public int getSampleRate() { return sampleRate; }
+    public int getChannels() { return channels; }
+    public long getFileLength() { return fileLength; }
+    public long getLastModified() { return lastModified; }
+
+    /** Duration rounded to whole seconds, as stored in songs.duration. */
+    public int getDurationSeconds() { return (int) ((durationMillis + 500) / 1000); }
+
+    @Override
+    public String toString() {
+        return String.format("%d:%02d, %d kbps%s, %d Hz, %s", durationMillis / 60000, durationMillis / 1000 % 60,
+                bitrateKbps, variableBitrate ? " VBR" : "", sampleRate, channels == 1 ? "mono" : "stereo");
+    }
+}
@@ -9,8 +9,13 @@ public class Song {
     private String releaseDate;
     private String imagePath;
     private String audioPath;
+    private int artistId; // songs.artist_id, 0 if the song isn't linked to an artist row
 
     public Song(int id, String title, String artist, String genre, int duration, String releaseDate, String imagePath, String audioPath) {
+        this(id, title, artist, genre, duration, releaseDate, imagePath, audioPath, 0);
+    }
+
+    public Song(int id, String title, String artist, String genre, int duration, String releaseDate, String imagePath, String audioPath, int artistId) {
         this.id = id;
         this.title = title;
         this.artist = artist;
@@ -19,6 +24,7 @@ public class Song {
         this.releaseDate = releaseDate;
         this.imagePath = imagePath;
         this.audioPath = audioPath;
+        this.artistId = artistId;
     }
 
     // Getters
@@ -30,4 +36,8 @@ public class Song {
     public String getReleaseDate() { return releaseDate; }
     public String getImagePath() { return imagePath; }
     public String getAudioPath() { return audioPath; }
+    public int getArtistId() { return artistId; }
+
+    @Override
+    public String toString() { return title + " - " + artist; }
 }
@@ -4,14 +4,24 @@ public class User {
     private int id;
     private String fullName;
     private String email;
+    private String dateOfBirth;
+    private String country;
 
     public User(int id, String fullName, String email) {
+        this(id, fullName, email, null, null);
+    }
+
+    public User(int id, String fullName, String email, String dateOfBirth, String country) {
         this.id = id;
         this.fullName = fullName;
         this.email = email;
+        this.dateOfBirth = dateOfBirth;
+        this.country = country;
     }
 
     public int getId() { return id; }
     public String getFullName() { return fullName; }
     public String getEmail() { return email; }
+    public String getDateOfBirth() { return dateOfBirth; }
+    public String getCountry() { return country; }
 }
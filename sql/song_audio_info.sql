@@ -0,0 +1,19 @@
+-- Per-song facts read from the audio files (db/AudioInfoRepository):
+-- exact duration, bitrate, sample rate, and the file length / mtime they
+-- were read from, so unchanged files aren't probed again.
+--
+-- Without this table the app still stores durations in songs.duration, but
+-- every "Scan Audio Info" probes every file again.
+--
+--   mysql -u root -p musicstreamingdb1 < sql/song_audio_info.sql
+
+CREATE TABLE IF NOT EXISTS song_audio_info (
+    song_id      INT PRIMARY KEY,
+    duration_ms  BIGINT NOT NULL,
+    bitrate_kbps INT NOT NULL,
+    vbr          BOOLEAN NOT NULL,
+    sample_rate  INT NOT NULL,
+    channels     TINYINT NOT NULL,
+    file_length  BIGINT NOT NULL,
+    file_mtime   BIGINT NOT NULL
+);
@@ -0,0 +1,14 @@
+-- Change tracking for the song catalog snapshot (catalog/CatalogSnapshot).
+--
+-- On start-up the app reloads only the songs changed since its last saved
+-- snapshot, found through this column. Without it the app still works; it
+-- just reads the whole songs table on every start and keeps no snapshot.
+--
+-- Run once, as a user allowed to ALTER the table. On a large table this
+-- rebuilds it, so pick a quiet moment:
+--   mysql -u root -p musicstreamingdb1 < sql/songs_updated_at.sql
+
+ALTER TABLE songs
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL
+        DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_songs_updated_at (updated_at);